@@ -0,0 +1,81 @@
+package exe.project.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exe.project.backend.dtos.responses.FlightSearchResponse;
+import exe.project.backend.enums.RapidApiEndPoint;
+import exe.project.backend.services.impl.FlightService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency của FlightService.searchFlight: resolve from/to song song so với tuần tự (flow cũ).
+ * Mode SampleTime in ra p50/p90/p99 cho từng cách, upstream là {@link StubRapidApiService}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class FlightRouteResolutionBenchmark {
+
+    @Param({"40"})
+    public long upstreamLatencyMs;
+
+    private ScheduledExecutorService scheduler;
+    private FlightService flightService;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        scheduler = Executors.newScheduledThreadPool(4);
+
+        StubRapidApiService upstream = new StubRapidApiService(scheduler, upstreamLatencyMs, objectMapper, Map.of(
+                RapidApiEndPoint.SEARCH_FLIGHT_DESTINATION, Payloads.bytes("flight-destination.json"),
+                RapidApiEndPoint.SEARCH_FLIGHT, Payloads.bytes("flight-search.json")));
+
+        flightService = new FlightService(upstream, objectMapper, new NoopDestinationIndexService());
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public FlightSearchResponse parallelResolution() {
+        return flightService.searchFlight(queries()).join();
+    }
+
+    @Benchmark
+    public FlightSearchResponse sequentialResolution() {
+        Map<String, String> queries = queries();
+
+        return flightService.getFlightDestination(queries.remove("from"), "vi")
+                .thenCompose(from -> flightService.getFlightDestination(queries.remove("to"), "vi")
+                        .thenCompose(to -> {
+                            queries.put("fromId", from.getDestinationId());
+                            queries.put("toId", to.getDestinationId());
+                            return flightService.searchFlight2(queries);
+                        }))
+                .join();
+    }
+
+    private static Map<String, String> queries() {
+        Map<String, String> queries = new HashMap<>();
+        queries.put("from", "Ho Chi Minh");
+        queries.put("to", "Ha Noi");
+        queries.put("departDate", "2026-11-10");
+        queries.put("returnDate", "2026-11-15");
+        queries.put("adults", "1");
+        queries.put("page", "1");
+        queries.put("currency_code", "VND");
+        return queries;
+    }
+}
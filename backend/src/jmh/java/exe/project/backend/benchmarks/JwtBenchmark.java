@@ -0,0 +1,78 @@
+package exe.project.backend.benchmarks;
+
+import exe.project.backend.config.CustomJwtDecoder;
+import exe.project.backend.enums.Role;
+import exe.project.backend.models.User;
+import exe.project.backend.services.ITokenRevocationService;
+import exe.project.backend.services.impl.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot path auth: ký access token (buildToken), parse + verify (extractAllClaims) và CustomJwtDecoder.decode
+ * mà filter chain gọi ở mọi request có Bearer token.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    // HS512 cần key >= 64 byte
+    private static final String SIGNER_KEY = "benchmark-signer-key-0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private JwtService jwtService;
+    private CustomJwtDecoder jwtDecoder;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(null, SIGNER_KEY, 259200L, 10_000, new SimpleMeterRegistry());
+
+        jwtDecoder = new CustomJwtDecoder(SIGNER_KEY, 10_000, new ITokenRevocationService() {
+            @Override
+            public boolean isRevoked(String token) {
+                return false;
+            }
+
+            @Override
+            public void revoke(String token, String tokenType, LocalDateTime expiresAt) {
+            }
+        }, new SimpleMeterRegistry());
+
+        user = User.builder()
+                .id(42L)
+                .email("benchmark@example.com")
+                .role(Role.USER)
+                .build();
+        token = jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String buildToken() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String extractAllClaims() {
+        return jwtService.extractUserName(token);
+    }
+
+    @Benchmark
+    public Date extractExpiredTime() {
+        return jwtService.extractExpiredTime(token);
+    }
+
+    @Benchmark
+    public Jwt customJwtDecoderDecode() {
+        return jwtDecoder.decode(token);
+    }
+}
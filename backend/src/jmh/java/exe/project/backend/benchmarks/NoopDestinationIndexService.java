@@ -0,0 +1,29 @@
+package exe.project.backend.benchmarks;
+
+import exe.project.backend.dtos.local.flight.FlightDestinationInfor;
+import exe.project.backend.dtos.local.hotel.HotelDestinationInfo;
+import exe.project.backend.services.IDestinationIndexService;
+
+/**
+ * Index luôn miss, để benchmark đo đúng đường gọi upstream.
+ */
+public class NoopDestinationIndexService implements IDestinationIndexService {
+
+    @Override
+    public HotelDestinationInfo findHotelDestination(String query) {
+        return null;
+    }
+
+    @Override
+    public FlightDestinationInfor findFlightDestination(String query) {
+        return null;
+    }
+
+    @Override
+    public void indexHotelDestination(String query, HotelDestinationInfo destination) {
+    }
+
+    @Override
+    public void indexFlightDestination(String query, FlightDestinationInfor destination) {
+    }
+}
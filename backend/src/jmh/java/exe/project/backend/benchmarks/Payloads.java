@@ -0,0 +1,39 @@
+package exe.project.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Payload mẫu theo đúng cấu trúc response của RapidAPI (booking-com15), nằm ở src/jmh/resources/payloads.
+ */
+public final class Payloads {
+
+    private Payloads() {
+    }
+
+    public static byte[] bytes(String name) {
+        try (InputStream in = Payloads.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Payload not found: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Field "data" của response, giống cái RapidApiService trả về cho service.
+     */
+    public static JsonNode data(ObjectMapper objectMapper, String name) {
+        try {
+            return objectMapper.readTree(bytes(name)).get("data");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
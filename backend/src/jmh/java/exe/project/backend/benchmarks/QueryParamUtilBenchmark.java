@@ -0,0 +1,43 @@
+package exe.project.backend.benchmarks;
+
+import exe.project.backend.utils.QueryParamUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QueryParamUtil.addIfNotNull với bộ param như HotelController.searchHotel (có cả giá trị null/blank).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryParamUtilBenchmark {
+
+    private String priceMax = "5000000";
+    private String roomQty = "1";
+    private String priceMin = null;
+    private String childrenAge = "";
+    private String adults = "2";
+
+    @Benchmark
+    public Map<String, String> addIfNotNull() {
+        Map<String, String> queries = new HashMap<>();
+        queries.put("destination", "Da Nang");
+        queries.put("arrival_date", "2026-11-10");
+        queries.put("departure_date", "2026-11-12");
+
+        QueryParamUtil.addIfNotNull(queries,
+                "price_max", priceMax,
+                "room_qty", roomQty,
+                "price_min", priceMin,
+                "children_age", childrenAge,
+                "adults", adults
+        );
+        return queries;
+    }
+}
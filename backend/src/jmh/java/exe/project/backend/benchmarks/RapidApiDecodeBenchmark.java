@@ -0,0 +1,49 @@
+package exe.project.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exe.project.backend.dtos.local.ApiWrapperResponse;
+import exe.project.backend.dtos.responses.FlightSearchResponse;
+import exe.project.backend.dtos.responses.HotelSearchResponse;
+import exe.project.backend.utils.RapidApiResponseReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode response RapidAPI sang DTO: cách cũ (ApiWrapperResponse với JsonNode data rồi treeToValue)
+ * so với streaming (RapidApiResponseReader). Chạy với {@code -prof gc} để xem gc.alloc.rate.norm (byte/op).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RapidApiDecodeBenchmark {
+
+    @Param({"hotel-search.json", "flight-search.json"})
+    public String payload;
+
+    private ObjectMapper objectMapper;
+    private byte[] body;
+    private Class<?> type;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        body = Payloads.bytes(payload);
+        type = payload.startsWith("hotel") ? HotelSearchResponse.class : FlightSearchResponse.class;
+    }
+
+    @Benchmark
+    public Object treeDecode() throws IOException {
+        ApiWrapperResponse response = objectMapper.readValue(body, ApiWrapperResponse.class);
+        return objectMapper.treeToValue(response.getData(), type);
+    }
+
+    @Benchmark
+    public Object streamingDecode() {
+        return RapidApiResponseReader.readData(objectMapper, body, type);
+    }
+}
@@ -0,0 +1,77 @@
+package exe.project.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exe.project.backend.dtos.local.ApiWrapperResponse;
+import exe.project.backend.enums.RapidApiEndPoint;
+import exe.project.backend.services.IRapidApiService;
+import exe.project.backend.utils.RapidApiResponseReader;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upstream giả lập: trả payload cố định sau một độ trễ ngẫu nhiên (base + jitter, 1% request chậm gấp 3)
+ * để đo được cả p50 lẫn p99 mà không cần gọi RapidAPI thật. Body được decode giống RapidApiService (streaming).
+ */
+public class StubRapidApiService implements IRapidApiService {
+
+    private final ScheduledExecutorService scheduler;
+    private final long baseLatencyMs;
+    private final ObjectMapper objectMapper;
+    private final Map<RapidApiEndPoint, byte[]> responses;
+
+    public StubRapidApiService(ScheduledExecutorService scheduler, long baseLatencyMs,
+                               ObjectMapper objectMapper, Map<RapidApiEndPoint, byte[]> responses) {
+        this.scheduler = scheduler;
+        this.baseLatencyMs = baseLatencyMs;
+        this.objectMapper = objectMapper;
+        this.responses = responses;
+    }
+
+    @Override
+    public CompletableFuture<byte[]> sendGetRequestRaw(String endpoint, Map<String, String> params) {
+        byte[] body = responses.get(RapidApiEndPoint.fromPath(endpoint));
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        scheduler.schedule(() -> future.complete(body), nextLatencyMicros(), TimeUnit.MICROSECONDS);
+        return future;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> sendGetDataAsync(String endpoint, Map<String, String> params, Class<T> type) {
+        return sendGetRequestRaw(endpoint, params)
+                .thenApply(body -> RapidApiResponseReader.readData(objectMapper, body, type));
+    }
+
+    @Override
+    public CompletableFuture<JsonNode> sendGetDataNodeAsync(String endpoint, Map<String, String> params) {
+        return sendGetDataAsync(endpoint, params, JsonNode.class);
+    }
+
+    @Override
+    public JsonNode sendGetDataNode(String endpoint, Map<String, String> params) {
+        return sendGetDataNodeAsync(endpoint, params).join();
+    }
+
+    @Override
+    public CompletableFuture<ApiWrapperResponse> sendGetRequestWrapper(String endpoint, Map<String, String> params) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> T sendGetRequest(String endpoint, Map<String, String> params, Class<T> responseType) {
+        throw new UnsupportedOperationException();
+    }
+
+    private long nextLatencyMicros() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latency = baseLatencyMs * 1000 + random.nextLong(baseLatencyMs * 500 + 1);
+        if (random.nextInt(100) == 0) {
+            latency *= 3;
+        }
+        return latency;
+    }
+}
@@ -0,0 +1,74 @@
+package exe.project.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exe.project.backend.utils.RapidApiResponseReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh chế độ platform (pool cố định 200 thread = max-threads mặc định của Tomcat) với virtual thread
+ * (spring.threads.virtual.enabled) cho handler kiểu của app: chờ I/O blocking (DB, SMTP, OAuth2 RestClient)
+ * rồi decode JSON. Mỗi op = một đợt {@code concurrentRequests} request đồng thời, chờ xong hết;
+ * request/s = ops/s x concurrentRequests. Chạy với -prof gc để so gc.alloc.rate.norm (byte/op);
+ * stack của platform thread nằm ngoài heap nên không hiện trong số này.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"200", "1000"})
+    public int concurrentRequests;
+
+    @Param({"20"})
+    public long blockingMs;
+
+    @Param({"platform", "virtual"})
+    public String threading;
+
+    private ExecutorService executor;
+    private ObjectMapper objectMapper;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        executor = "virtual".equals(threading)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        objectMapper = new ObjectMapper();
+        body = Payloads.bytes("hotel-destination.json");
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void burst() {
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[concurrentRequests];
+        for (int i = 0; i < concurrentRequests; i++) {
+            requests[i] = CompletableFuture.supplyAsync(this::handle, executor);
+        }
+        CompletableFuture.allOf(requests).join();
+    }
+
+    private JsonNode handle() {
+        try {
+            Thread.sleep(blockingMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return RapidApiResponseReader.readData(objectMapper, body, JsonNode.class);
+    }
+}
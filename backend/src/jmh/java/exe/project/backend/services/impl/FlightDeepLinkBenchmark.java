@@ -0,0 +1,44 @@
+package exe.project.backend.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exe.project.backend.benchmarks.Payloads;
+import exe.project.backend.dtos.responses.FlightSearchResponse;
+import exe.project.backend.utils.RapidApiResponseReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Post-processing offer của FlightService (dựng deep-link booking.com) trên payload flight-search.json.
+ * Cùng package với FlightService vì attachDeepLinks là package-private.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlightDeepLinkBenchmark {
+
+    private FlightSearchResponse response;
+    private Map<String, String> queries;
+
+    @Setup
+    public void setUp() {
+        response = RapidApiResponseReader.readData(
+                new ObjectMapper(), Payloads.bytes("flight-search.json"), FlightSearchResponse.class);
+        queries = Map.of(
+                "fromId", "SGN.AIRPORT",
+                "toId", "HAN.AIRPORT",
+                "adults", "2",
+                "childrenAge", "5,8");
+    }
+
+    @Benchmark
+    public FlightSearchResponse attachDeepLinks() {
+        // Chỉ ghi đè linkFFFlight nên dùng lại cùng response giữa các lần gọi
+        FlightService.attachDeepLinks(response, queries);
+        return response;
+    }
+}
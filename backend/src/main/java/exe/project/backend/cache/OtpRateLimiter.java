@@ -0,0 +1,90 @@
+package exe.project.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import exe.project.backend.enums.ErrorCode;
+import exe.project.backend.exceptions.ServiceException;
+import exe.project.backend.utils.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Giới hạn OTP trong bộ nhớ, chặn trước khi đụng DB hoặc SMTP: token bucket theo email và theo IP cho việc gửi,
+ * theo email cho việc verify (chống dò mã). Bucket không dùng tới sẽ bị Caffeine bỏ sau idle-ttl,
+ * lúc đó bucket đã hồi đầy nên bỏ đi không làm lỏng giới hạn.
+ * Metrics: otp.rate_limited{scope=email|ip|verify}.
+ */
+@Component
+public class OtpRateLimiter {
+
+    private final Limit sendPerEmail;
+    private final Limit sendPerIp;
+    private final Limit verifyPerEmail;
+
+    public OtpRateLimiter(
+            @Value("${otp.rate-limit.send-per-email.capacity:3}") long emailCapacity,
+            @Value("${otp.rate-limit.send-per-email.refill-seconds:60}") long emailRefillSeconds,
+            @Value("${otp.rate-limit.send-per-ip.capacity:10}") long ipCapacity,
+            @Value("${otp.rate-limit.send-per-ip.refill-seconds:30}") long ipRefillSeconds,
+            @Value("${otp.rate-limit.verify-per-email.capacity:5}") long verifyCapacity,
+            @Value("${otp.rate-limit.verify-per-email.refill-seconds:60}") long verifyRefillSeconds,
+            @Value("${otp.rate-limit.max-keys:100000}") long maxKeys,
+            MeterRegistry meterRegistry) {
+        this.sendPerEmail = new Limit("email", emailCapacity, emailRefillSeconds, maxKeys, meterRegistry);
+        this.sendPerIp = new Limit("ip", ipCapacity, ipRefillSeconds, maxKeys, meterRegistry);
+        this.verifyPerEmail = new Limit("verify", verifyCapacity, verifyRefillSeconds, maxKeys, meterRegistry);
+    }
+
+    /**
+     * Ném TOO_MANY_OTP_REQUESTS nếu IP hoặc email đã gửi quá nhiều
+     */
+    public void checkSend(String email, String clientIp) {
+        if (clientIp != null && !sendPerIp.tryConsume(clientIp)) {
+            throw new ServiceException(ErrorCode.TOO_MANY_OTP_REQUESTS);
+        }
+        if (!sendPerEmail.tryConsume(normalize(email))) {
+            throw new ServiceException(ErrorCode.TOO_MANY_OTP_REQUESTS);
+        }
+    }
+
+    public void checkVerify(String email) {
+        if (!verifyPerEmail.tryConsume(normalize(email))) {
+            throw new ServiceException(ErrorCode.TOO_MANY_OTP_REQUESTS);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Limit {
+        private final Cache<String, TokenBucket> buckets;
+        private final long capacity;
+        private final long refillIntervalNanos;
+        private final Counter limited;
+
+        private Limit(String scope, long capacity, long refillSeconds, long maxKeys, MeterRegistry meterRegistry) {
+            this.capacity = capacity;
+            this.refillIntervalNanos = Duration.ofSeconds(refillSeconds).toNanos();
+            // Sau capacity * refill giây không dùng thì bucket đã đầy lại, bỏ đi cũng như nhau
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofSeconds(capacity * refillSeconds))
+                    .build();
+            this.limited = Counter.builder("otp.rate_limited").tag("scope", scope).register(meterRegistry);
+        }
+
+        private boolean tryConsume(String key) {
+            boolean allowed = buckets.get(key, k -> new TokenBucket(capacity, refillIntervalNanos)).tryConsume();
+            if (!allowed) {
+                limited.increment();
+            }
+            return allowed;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package exe.project.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import exe.project.backend.enums.RapidApiEndPoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cache body thô (byte[]) của RapidAPI theo endpoint + query params (đã sắp xếp).
+ * Giữ byte[] thay vì JsonNode: nhỏ hơn nhiều trên heap và decode streaming thẳng sang DTO mỗi lần đọc.
+ * TTL lấy theo từng {@link RapidApiEndPoint}. Giới hạn theo tổng số byte (body + key) chứ không theo số entry,
+ * vì một response có thể vài trăm KB; vượt ngưỡng thì Caffeine evict theo tần suất dùng.
+ * Metrics: cache.gets{result=hit|miss}, cache.evictions, cache.size với tag cache=rapidApiResponses.
+ */
+@Component
+public class RapidApiResponseCache {
+
+    private final boolean enabled;
+    private final Cache<String, CachedResponse> cache;
+
+    public RapidApiResponseCache(
+            @Value("${rapid-api.cache.enabled:true}") boolean enabled,
+            @Value("${rapid-api.cache.max-bytes:67108864}") long maxBytes,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse value) -> value.body().length + 2 * key.length())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "rapidApiResponses");
+    }
+
+    /**
+     * Key chuẩn hoá: path + params sắp xếp theo tên, để cùng một query với thứ tự param khác nhau vẫn trúng cache.
+     */
+    public static String keyOf(String endpoint, Map<String, String> params) {
+        StringBuilder key = new StringBuilder(endpoint);
+        if (params != null && !params.isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<String, String> entry : new TreeMap<>(params).entrySet()) {
+                key.append(separator).append(entry.getKey()).append('=').append(entry.getValue());
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    public byte[] get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        CachedResponse cached = cache.getIfPresent(key);
+        return cached != null ? cached.body() : null;
+    }
+
+    public void put(RapidApiEndPoint endPoint, String key, byte[] body) {
+        if (!enabled || endPoint == null || body == null || body.length == 0) {
+            return;
+        }
+        cache.put(key, new CachedResponse(body, endPoint.getCacheTtl().toNanos()));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private record CachedResponse(byte[] body, long ttlNanos) {
+    }
+}
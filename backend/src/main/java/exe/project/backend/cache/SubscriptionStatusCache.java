@@ -0,0 +1,67 @@
+package exe.project.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Cache expiredAt của subscription theo userId. Chỉ lưu thời điểm hết hạn, isActive/remainingDays
+ * tính lại mỗi lần đọc nên entry không bao giờ "cũ" theo thời gian, chỉ cũ khi có ghi mới.
+ * Mọi chỗ ghi user_subscriptions phải gọi {@link #invalidate(Long)}; TTL chỉ là lưới an toàn
+ * cho ghi từ node khác hoặc sửa tay trong DB.
+ * Metrics: cache.gets{result=hit|miss}, cache.evictions, cache.size với tag cache=subscriptionStatus.
+ */
+@Component
+public class SubscriptionStatusCache {
+
+    private final Cache<Long, CachedExpiry> cache;
+
+    public SubscriptionStatusCache(
+            @Value("${subscription.status-cache.max-entries:50000}") long maxEntries,
+            @Value("${subscription.status-cache.ttl-seconds:600}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "subscriptionStatus");
+    }
+
+    /**
+     * expiredAt của user (null nếu chưa có subscription), miss thì gọi {@code loader} rồi lưu lại
+     */
+    public LocalDateTime getExpiredAt(Long userId, Function<Long, LocalDateTime> loader) {
+        return cache.get(userId, id -> new CachedExpiry(loader.apply(id))).expiredAt();
+    }
+
+    /**
+     * Xoá ngay và xoá lần nữa sau khi transaction commit, để request đọc chen giữa lúc ghi
+     * (còn thấy dữ liệu cũ trong DB) không nạp lại giá trị cũ vào cache.
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    // Caffeine không nhận value null, bọc lại để cache cả trường hợp user chưa có subscription
+    private record CachedExpiry(LocalDateTime expiredAt) {
+    }
+}
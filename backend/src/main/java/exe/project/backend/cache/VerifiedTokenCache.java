@@ -0,0 +1,72 @@
+package exe.project.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import exe.project.backend.utils.TokenHashUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Kết quả verify token (claims, Jwt...), key = SHA-256 của token, mỗi entry hết hạn đúng lúc {@code exp}.
+ * Mỗi nơi verify (access/refresh/decoder) dùng một instance riêng để token ký bằng key này
+ * không bao giờ được chấp nhận ở chỗ verify bằng key khác.
+ */
+public class VerifiedTokenCache<T> {
+
+    private final Cache<String, T> cache;
+
+    public VerifiedTokenCache(String name, long maxEntries, MeterRegistry meterRegistry, Function<T, Instant> expiresAt) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, T>() {
+                    @Override
+                    public long expireAfterCreate(String key, T value, long currentTime) {
+                        Instant expiration = expiresAt.apply(value);
+                        if (expiration == null) {
+                            return 0;
+                        }
+                        long remainingMs = expiration.toEpochMilli() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, T value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, T value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * Trả kết quả đã cache, miss thì gọi {@code verifier} (parse + HMAC) rồi lưu lại.
+     * Verifier ném exception thì không cache gì, lần sau verify lại từ đầu.
+     */
+    public T get(String token, Function<String, T> verifier) {
+        String key = TokenHashUtil.sha256Hex(token);
+        T cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        T verified = verifier.apply(token);
+        cache.put(key, verified);
+        return verified;
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(TokenHashUtil.sha256Hex(token));
+    }
+}
@@ -1,16 +1,25 @@
 package exe.project.backend.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
+/**
+ * Executor dùng chung. spring.threads.virtual.enabled = true thì Spring Boot chuyển Tomcat và scheduler
+ * sang virtual thread, các bean ở đây cũng đổi theo (@ConditionalOnThreading); false giữ pool platform như cũ.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
     @Bean(name = "taskExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
     public Executor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2); // Initial number of threads
@@ -20,4 +29,31 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Mỗi task @Async một virtual thread, không cần pool/queue
+     */
+    @Bean(name = "taskExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Async-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    /**
+     * Worker của transactional outbox: 1 thread, hàng đợi 1 chỗ, dư thì bỏ
+     * (đang có một lần drain chờ sẵn thì lần đánh thức mới là thừa)
+     */
+    @Bean(name = "outboxExecutor")
+    public Executor outboxExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setThreadNamePrefix("Outbox-");
+        executor.initialize();
+        return executor;
+    }
+}
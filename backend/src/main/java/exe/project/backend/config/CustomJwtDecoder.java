@@ -1,28 +1,84 @@
 package exe.project.backend.config;
 
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import exe.project.backend.cache.VerifiedTokenCache;
+import exe.project.backend.services.ITokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Component;
 
 import java.text.ParseException;
+import java.time.Instant;
 
+/**
+ * Decoder cho resource server: verify chữ ký HS512 bằng MACVerifier dùng chung, check hạn và revocation.
+ * Jwt đã decode được cache tới lúc hết hạn nên request lặp lại cùng bearer token bỏ qua parse + HMAC,
+ * chỉ còn check revocation (in-memory) mỗi lần.
+ */
 @Component
 public class CustomJwtDecoder implements JwtDecoder {
+
+    private final MACVerifier verifier;
+    private final ITokenRevocationService tokenRevocationService;
+    private final VerifiedTokenCache<Jwt> jwtCache;
+
+    public CustomJwtDecoder(
+            @Value("${jwt.signerKey}") String signerKey,
+            @Value("${jwt.claims-cache.max-entries:10000}") long cacheMaxEntries,
+            ITokenRevocationService tokenRevocationService,
+            MeterRegistry meterRegistry) {
+        try {
+            this.verifier = new MACVerifier(signerKey.getBytes());
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Invalid jwt.signerKey", e);
+        }
+        this.tokenRevocationService = tokenRevocationService;
+        this.jwtCache = new VerifiedTokenCache<>("decodedJwt", cacheMaxEntries, meterRegistry, Jwt::getExpiresAt);
+    }
+
     @Override
     public Jwt decode(String token) throws JwtException {
+        Jwt jwt = jwtCache.get(token, this::verifyAndDecode);
+
+        // Cache có thể giữ tới đúng exp, check lại để không trả Jwt vừa hết hạn
+        if (jwt.getExpiresAt() == null || !jwt.getExpiresAt().isAfter(Instant.now())) {
+            throw new JwtException("Token expired");
+        }
+        if (tokenRevocationService.isRevoked(token)) {
+            throw new JwtException("Token revoked");
+        }
+        return jwt;
+    }
+
+    private Jwt verifyAndDecode(String token) {
         try {
             SignedJWT signedJWT = SignedJWT.parse(token);
 
+            if (!JWSAlgorithm.HS512.equals(signedJWT.getHeader().getAlgorithm())
+                    || !signedJWT.verify(verifier)) {
+                throw new JwtException("Invalid token signature");
+            }
+
+            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+            if (claims.getIssueTime() == null || claims.getExpirationTime() == null) {
+                throw new JwtException("Invalid token");
+            }
+
             return new Jwt(token,
-                    signedJWT.getJWTClaimsSet().getIssueTime().toInstant(),
-                    signedJWT.getJWTClaimsSet().getExpirationTime().toInstant(),
+                    claims.getIssueTime().toInstant(),
+                    claims.getExpirationTime().toInstant(),
                     signedJWT.getHeader().toJSONObject(),
-                    signedJWT.getJWTClaimsSet().getClaims()
+                    claims.getClaims()
             );
 
-        } catch (ParseException e) {
+        } catch (ParseException | JOSEException e) {
             throw new JwtException("Invalid token");
         }
     }
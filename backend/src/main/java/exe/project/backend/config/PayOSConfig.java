@@ -1,5 +1,6 @@
 package exe.project.backend.config;
 
+import exe.project.backend.utils.OrderCodeGenerator;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +25,9 @@ public class PayOSConfig {
     @Value("${payos.webhook.url}")
     private String webhookUrl;
 
+    @Value("${payos.order-code.node-id:0}")
+    private int orderCodeNodeId;
+
     @Bean
     public PayOS payOS() {
         ClientOptions options = ClientOptions.builder()
@@ -39,4 +43,12 @@ public class PayOSConfig {
     public String payosWebhookUrl() {
         return webhookUrl;
     }
+
+    /**
+     * Mỗi replica cần node-id riêng (0-15) để orderCode không trùng giữa các node
+     */
+    @Bean
+    public OrderCodeGenerator orderCodeGenerator() {
+        return new OrderCodeGenerator(orderCodeNodeId);
+    }
 }
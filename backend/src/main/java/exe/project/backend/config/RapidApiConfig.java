@@ -1,12 +1,15 @@
 package exe.project.backend.config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 
@@ -23,10 +26,68 @@ public class RapidApiConfig {
     @Value("${rapid-api.key}")
     private String key;
 
+    @Value("${rapid-api.http.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${rapid-api.http.response-timeout-ms:10000}")
+    private long responseTimeoutMs;
+
+    @Value("${rapid-api.http.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${rapid-api.http.pending-acquire-max-count:500}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${rapid-api.http.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${rapid-api.http.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${rapid-api.http.max-life-time-ms:300000}")
+    private long maxLifeTimeMs;
+
+    @Value("${rapid-api.http.evict-interval-ms:30000}")
+    private long evictIntervalMs;
+
+    @Value("${rapid-api.http.http2:true}")
+    private boolean http2;
+
+    @Value("${rapid-api.http.compress:true}")
+    private boolean compress;
+
+    /**
+     * Pool kết nối riêng cho RapidAPI (không dùng pool mặc định dùng chung của Reactor Netty).
+     * metrics(true): reactor.netty.connection.provider.* (active/idle/pending connections, thời gian chờ lấy connection)
+     * với tag name=rapidapi, dùng để chỉnh max-connections theo QPS đỉnh.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider rapidApiConnectionProvider() {
+        return ConnectionProvider.builder("rapidapi")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(evictIntervalMs))
+                .metrics(true)
+                .build();
+    }
+
     @Bean
-    public WebClient rapidApiClient(WebClient.Builder builder) {
-        HttpClient httpClient = HttpClient.create()
-                .responseTimeout(Duration.ofSeconds(10)); // timeout 10s
+    public WebClient rapidApiClient(WebClient.Builder builder, ConnectionProvider rapidApiConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(rapidApiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .compress(compress); // Accept-Encoding: gzip, tự giải nén response
+
+        if (http2) {
+            // https: thương lượng h2 qua ALPN, server không hỗ trợ thì về HTTP/1.1; http: h2c (upgrade từ HTTP/1.1)
+            httpClient = url.startsWith("https")
+                    ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure()
+                    : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
 
         return builder
                 .baseUrl(url)
@@ -0,0 +1,98 @@
+package exe.project.backend.config;
+
+import exe.project.backend.enums.RapidApiEndPoint;
+import exe.project.backend.enums.RapidApiUpstream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mỗi upstream RapidAPI (hotel, flight, destination) một pool riêng chạy decode response và các stage phía sau
+ * trong HotelService/FlightService (kể cả ghi index destination xuống DB), thay vì dùng chung một executor.
+ * Pool có giới hạn thread + hàng đợi; đầy thì từ chối ngay (future lỗi, service trả null như khi upstream lỗi)
+ * chứ không chạy trên event loop của Netty. Virtual thread mode: vẫn giới hạn như trên nhưng thread là virtual.
+ * Metrics: rapidapi.executor.active / .queued / .idle (thời gian chờ trong hàng đợi) / rapidapi.executor.rejected, tag name.
+ */
+@Slf4j
+@Component
+public class RapidApiExecutors {
+
+    private final Map<RapidApiUpstream, ExecutorService> executors = new EnumMap<>(RapidApiUpstream.class);
+
+    public RapidApiExecutors(
+            @Value("${rapid-api.executor.threads:8}") int threads,
+            @Value("${rapid-api.executor.queue-capacity:200}") int queueCapacity,
+            Environment environment,
+            MeterRegistry meterRegistry) {
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+
+        for (RapidApiUpstream upstream : RapidApiUpstream.values()) {
+            String name = "rapidapi-" + upstream.name().toLowerCase();
+            Counter rejected = Counter.builder("rapidapi.executor.rejected")
+                    .description("RapidAPI stages rejected because the upstream executor is saturated")
+                    .tags(Tags.of("name", name))
+                    .register(meterRegistry);
+
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    threadFactory(name, virtual),
+                    (task, executor) -> {
+                        rejected.increment();
+                        throw new RejectedExecutionException(name + " executor is saturated");
+                    });
+            pool.allowCoreThreadTimeOut(true);
+
+            executors.put(upstream, ExecutorServiceMetrics.monitor(meterRegistry, pool, name, "rapidapi"));
+        }
+        log.info("RapidAPI executors: {} threads, queue {} per upstream ({} threads)",
+                threads, queueCapacity, virtual ? "virtual" : "platform");
+    }
+
+    public Executor get(RapidApiUpstream upstream) {
+        return executors.get(upstream);
+    }
+
+    /**
+     * Executor theo path endpoint; path lạ (không có trong RapidApiEndPoint) thì chạy luôn trên thread hoàn thành future
+     */
+    public Executor forEndpoint(String path) {
+        RapidApiEndPoint endPoint = RapidApiEndPoint.fromPath(path);
+        return endPoint != null ? get(endPoint.getUpstream()) : Runnable::run;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ExecutorService::shutdown);
+    }
+
+    private ThreadFactory threadFactory(String name, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(name + "-", 1).factory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
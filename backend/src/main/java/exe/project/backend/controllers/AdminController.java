@@ -46,16 +46,17 @@ public class AdminController {
         }
 
         @GetMapping("/stats/users")
-        @Operation(summary = "Thống kê đăng ký user theo thời gian", description = "Lấy biểu đồ số lượng user đăng ký mới theo ngày hoặc tháng. "
+        @Operation(summary = "Thống kê đăng ký user theo thời gian", description = "Lấy biểu đồ số lượng user đăng ký mới theo ngày, tuần hoặc tháng (một query GROUP BY, bucket trống = 0). "
                         +
                         "Dùng để vẽ LINE CHART theo thời gian.\n\n" +
                         "**Cách dùng:**\n" +
                         "- Mặc định: 7 ngày gần nhất theo DAY\n" +
+                        "- Theo tuần: type=WEEK&startDate=2024-01-01&endDate=2024-03-31\n" +
                         "- Theo tháng: type=MONTH&startDate=2024-01-01&endDate=2024-12-31\n" +
                         "- Custom range: type=DAY&startDate=2024-01-01&endDate=2024-01-07")
         @ApiResponse(responseCode = "200", description = "Trả về labels (thời gian) và data (số user)")
         public ResponseEntity<BaseJsonResponse> getUserRegistrationStats(
-                        @Parameter(description = "Loại thống kê: DAY hoặc MONTH", example = "DAY") @RequestParam(required = false, defaultValue = "DAY") String type,
+                        @Parameter(description = "Loại thống kê: DAY, WEEK hoặc MONTH", example = "DAY") @RequestParam(required = false, defaultValue = "DAY") String type,
                         @Parameter(description = "Ngày bắt đầu (format: yyyy-MM-dd)", example = "2024-01-01") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
                         @Parameter(description = "Ngày kết thúc (format: yyyy-MM-dd)", example = "2024-01-07") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
                 return ResponseEntity.ok(BaseJsonResponse.builder()
@@ -66,16 +67,17 @@ public class AdminController {
         }
 
         @GetMapping("/stats/revenue")
-        @Operation(summary = "Thống kê doanh thu theo thời gian", description = "Lấy biểu đồ doanh thu theo ngày hoặc tháng. "
+        @Operation(summary = "Thống kê doanh thu theo thời gian", description = "Lấy biểu đồ doanh thu theo ngày, tuần hoặc tháng (một query GROUP BY, bucket trống = 0). "
                         +
                         "Dùng để vẽ LINE CHART theo thời gian.\n\n" +
                         "**Cách dùng:**\n" +
                         "- Mặc định: 7 ngày gần nhất theo DAY\n" +
+                        "- Theo tuần: type=WEEK&startDate=2024-01-01&endDate=2024-03-31\n" +
                         "- Theo tháng: type=MONTH&startDate=2024-01-01&endDate=2024-12-31\n" +
                         "- Custom range: type=DAY&startDate=2024-01-01&endDate=2024-01-07")
         @ApiResponse(responseCode = "200", description = "Trả về labels (thời gian) và data (doanh thu)")
         public ResponseEntity<BaseJsonResponse> getRevenueStats(
-                        @Parameter(description = "Loại thống kê: DAY hoặc MONTH", example = "DAY") @RequestParam(required = false, defaultValue = "DAY") String type,
+                        @Parameter(description = "Loại thống kê: DAY, WEEK hoặc MONTH", example = "DAY") @RequestParam(required = false, defaultValue = "DAY") String type,
                         @Parameter(description = "Ngày bắt đầu (format: yyyy-MM-dd)", example = "2024-01-01") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
                         @Parameter(description = "Ngày kết thúc (format: yyyy-MM-dd)", example = "2024-01-31") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
                 return ResponseEntity.ok(BaseJsonResponse.builder()
@@ -111,7 +113,7 @@ public class AdminController {
         @GetMapping("/users")
         @Operation(summary = "Danh sách user có phân trang và filter", description = "Lấy danh sách user với các điều kiện lọc:\n"
                         +
-                        "- email: Tìm kiếm theo email (LIKE search)\n" +
+                        "- email: Tìm kiếm theo tiền tố email (không phân biệt hoa thường)\n" +
                         "- role: Lọc theo vai trò (USER/ADMIN)\n" +
                         "- isSubscribed: Lọc user có subscription hay không\n" +
                         "- isBlocked: Lọc user bị block hay không\n\n" +
@@ -138,6 +140,33 @@ public class AdminController {
                                 .build());
         }
 
+        @GetMapping("/users/cursor")
+        @Operation(summary = "Danh sách user (cursor)", description = "Cùng filter với /admin/users nhưng keyset pagination theo createAt DESC: "
+                        + "trang đầu không gửi cursor, các trang sau gửi lại nextCursor. Không OFFSET nên trang sâu vẫn nhanh.\n\n"
+                        + "includeTotal=true mới đếm tổng (COUNT theo filter), mặc định bỏ qua.")
+        @ApiResponse(responseCode = "200", description = "Trả về CursorPage<User>")
+        public ResponseEntity<BaseJsonResponse> getUsersByCursor(
+                        @Parameter(description = "Tiền tố email để search", example = "user@") @RequestParam(required = false) String email,
+                        @Parameter(description = "Vai trò: USER hoặc ADMIN", example = "USER") @RequestParam(required = false) Role role,
+                        @Parameter(description = "Có subscription active không", example = "true") @RequestParam(required = false) Boolean isSubscribed,
+                        @Parameter(description = "Đã bị block chưa (deleteFlag)", example = "false") @RequestParam(required = false) Boolean isBlocked,
+                        @Parameter(description = "nextCursor của trang trước") @RequestParam(required = false) String cursor,
+                        @Parameter(description = "Số dòng mỗi trang (1-100)", example = "20") @RequestParam(defaultValue = "20") int size,
+                        @Parameter(description = "Có đếm tổng số dòng không", example = "false") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+                UserFilterRequest request = new UserFilterRequest();
+                request.setEmail(email);
+                request.setRole(role);
+                request.setIsSubscribed(isSubscribed);
+                request.setIsBlocked(isBlocked);
+
+                return ResponseEntity.ok(BaseJsonResponse.builder()
+                                .status(StatusFlag.SUCCESS.getValue())
+                                .message("Get users successfully")
+                                .result(adminService.getUsers(request, cursor, clampPageSize(size), includeTotal))
+                                .build());
+        }
+
         @PostMapping("/users/subscription/extend")
         @Operation(summary = "Gia hạn subscription cho user", description = "Admin gia hạn subscription cho user theo số ngày hoặc tháng.\n\n"
                         +
@@ -190,6 +219,33 @@ public class AdminController {
                                 .build());
         }
 
+        @GetMapping("/payments/cursor")
+        @Operation(summary = "Danh sách payment (cursor)", description = "Cùng filter với /admin/payments nhưng keyset pagination theo createAt DESC: "
+                        + "trang đầu không gửi cursor, các trang sau gửi lại nextCursor. Không OFFSET nên trang sâu vẫn nhanh.\n\n"
+                        + "includeTotal=true mới đếm tổng (COUNT theo filter), mặc định bỏ qua.")
+        @ApiResponse(responseCode = "200", description = "Trả về CursorPage<Payment>")
+        public ResponseEntity<BaseJsonResponse> getPaymentsByCursor(
+                        @Parameter(description = "Trạng thái payment", example = "SUCCESS") @RequestParam(required = false) PaymentStatus status,
+                        @Parameter(description = "ID của user", example = "1") @RequestParam(required = false) Long userId,
+                        @Parameter(description = "Ngày bắt đầu (format: yyyy-MM-dd)", example = "2024-01-01") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                        @Parameter(description = "Ngày kết thúc (format: yyyy-MM-dd)", example = "2024-01-31") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                        @Parameter(description = "nextCursor của trang trước") @RequestParam(required = false) String cursor,
+                        @Parameter(description = "Số dòng mỗi trang (1-100)", example = "20") @RequestParam(defaultValue = "20") int size,
+                        @Parameter(description = "Có đếm tổng số dòng không", example = "false") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+                PaymentFilterRequest request = new PaymentFilterRequest();
+                request.setStatus(status);
+                request.setUserId(userId);
+                request.setStartDate(startDate);
+                request.setEndDate(endDate);
+
+                return ResponseEntity.ok(BaseJsonResponse.builder()
+                                .status(StatusFlag.SUCCESS.getValue())
+                                .message("Get payments successfully")
+                                .result(adminService.getPayments(request, cursor, clampPageSize(size), includeTotal))
+                                .build());
+        }
+
         @PutMapping("/payments/{id}")
         @Operation(summary = "Cập nhật payment (admin manual update)", description = "Admin có thể cập nhật status hoặc amount của payment.\n\n"
                         +
@@ -212,4 +268,20 @@ public class AdminController {
                                 .result(adminService.updatePayment(id, request))
                                 .build());
         }
+
+        @PostMapping("/packages/reload")
+        @Operation(summary = "Reload catalog gói subscription", description = "Đọc lại bảng subscription_packages vào catalog in-memory. "
+                        + "Gọi sau khi sửa giá, thời hạn hoặc trạng thái active của gói trong DB.")
+        @ApiResponse(responseCode = "200", description = "Trả về danh sách gói sau khi reload")
+        public ResponseEntity<BaseJsonResponse> reloadPackageCatalog() {
+                return ResponseEntity.ok(BaseJsonResponse.builder()
+                                .status(StatusFlag.SUCCESS.getValue())
+                                .message("Package catalog reloaded successfully")
+                                .result(adminService.reloadPackageCatalog())
+                                .build());
+        }
+
+        private static int clampPageSize(int size) {
+                return Math.min(Math.max(size, 1), 100);
+        }
 }
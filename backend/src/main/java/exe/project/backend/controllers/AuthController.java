@@ -8,6 +8,7 @@ import exe.project.backend.dtos.responses.RefreshTokenResponse;
 import exe.project.backend.dtos.responses.RegisterResponse;
 import exe.project.backend.enums.StatusFlag;
 import exe.project.backend.services.IAuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,8 +22,9 @@ public class AuthController {
 
     //send otp to user mail
     @PostMapping("/otp-login/{email}")
-    public ResponseEntity<BaseJsonResponse> sendOtpRegister(@PathVariable String email) {
-        authService.sendOtpLogin(email);
+    public ResponseEntity<BaseJsonResponse> sendOtpRegister(@PathVariable String email, HttpServletRequest request) {
+        // Sau reverse proxy cần server.forward-headers-strategy để remoteAddr là IP thật của client
+        authService.sendOtpLogin(email, request.getRemoteAddr());
         return ResponseEntity.ok(BaseJsonResponse.builder()
                 .status(StatusFlag.SUCCESS.getValue())
                 .message("OTP sent successfully")
@@ -1,9 +1,11 @@
 package exe.project.backend.controllers;
 
 import exe.project.backend.dtos.base.BaseJsonResponse;
+import exe.project.backend.dtos.responses.CursorPage;
 import exe.project.backend.dtos.responses.PaymentHistoryResponse;
 import exe.project.backend.enums.StatusFlag;
 import exe.project.backend.services.IPaymentService;
+import exe.project.backend.services.IPaymentWebhookService;
 import exe.project.backend.services.IPayOSService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,15 +29,17 @@ public class PaymentController {
 
     private final IPaymentService paymentService;
     private final IPayOSService payOSService;
+    private final IPaymentWebhookService paymentWebhookService;
 
     @PostMapping("/payos/callback")
-    @Operation(summary = "PayOS Webhook Callback", description = "Endpoint nhận webhook từ PayOS khi thanh toán thành công/thất bại")
+    @Operation(summary = "PayOS Webhook Callback", description = "Endpoint nhận webhook từ PayOS khi thanh toán thành công/thất bại. "
+            + "Mặc định chỉ verify chữ ký, lưu vào hàng đợi và trả về ngay; worker xử lý phía sau (payos.webhook.async-ingest)")
     public ResponseEntity<BaseJsonResponse> handleCallback(
             @RequestBody Object webhookBody) {
         try {
             log.info("Received PayOS webhook callback");
 
-            paymentService.handlePayOSCallback(webhookBody);
+            paymentWebhookService.receive(webhookBody);
 
             return ResponseEntity.ok(BaseJsonResponse.builder()
                     .status(StatusFlag.SUCCESS.getValue())
@@ -100,4 +104,32 @@ public class PaymentController {
                     .build());
         }
     }
+
+    @GetMapping("/history/cursor")
+    @Operation(summary = "Lịch sử thanh toán (cursor)", description = "Keyset pagination theo createAt: trang đầu không gửi cursor, "
+            + "các trang sau gửi lại nextCursor của trang trước. Không OFFSET/COUNT nên trang sâu vẫn nhanh")
+    public ResponseEntity<BaseJsonResponse> getHistoryByCursor(
+            @RequestParam Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            log.info("Getting payment history for userId: {}, cursor: {}, size: {}", userId, cursor, size);
+
+            CursorPage<PaymentHistoryResponse> response = paymentService.getPaymentHistory(
+                    userId, cursor, Math.min(Math.max(size, 1), 100));
+
+            return ResponseEntity.ok(BaseJsonResponse.builder()
+                    .status(StatusFlag.SUCCESS.getValue())
+                    .message("success")
+                    .result(response)
+                    .build());
+
+        } catch (Exception e) {
+            log.error("Error getting payment history", e);
+            return ResponseEntity.badRequest().body(BaseJsonResponse.builder()
+                    .status(StatusFlag.ERROR.getValue())
+                    .message(e.getMessage())
+                    .build());
+        }
+    }
 }
@@ -0,0 +1,16 @@
+package exe.project.backend.dtos.local;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection của TokenBlacklist khi nạp vào bộ nhớ: chỉ hash + hạn, không đọc cột @Lob token
+ */
+@Data
+@AllArgsConstructor
+public class RevokedTokenHash {
+    private String tokenHash;
+    private LocalDateTime expiresAt;
+}
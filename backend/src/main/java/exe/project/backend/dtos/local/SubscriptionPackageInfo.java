@@ -0,0 +1,30 @@
+package exe.project.backend.dtos.local;
+
+import exe.project.backend.models.SubscriptionPackage;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Bản chụp bất biến của một SubscriptionPackage, dùng trong catalog in-memory
+ */
+@Value
+@Builder
+public class SubscriptionPackageInfo {
+    Long id;
+    String code;
+    Integer durationDays;
+    Long price;
+    boolean active;
+    String displayName;
+
+    public static SubscriptionPackageInfo from(SubscriptionPackage pkg) {
+        return SubscriptionPackageInfo.builder()
+                .id(pkg.getId())
+                .code(pkg.getCode())
+                .durationDays(pkg.getDurationDays())
+                .price(pkg.getPrice())
+                .active(Boolean.TRUE.equals(pkg.getIsActive()))
+                .displayName(pkg.getDisplayName())
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package exe.project.backend.dtos.local;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload outbox SUBSCRIPTION_CONFIRMATION_EMAIL, chụp lại lúc webhook xử lý xong
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionPurchasedPayload {
+    private Long userId;
+    private Long paymentId;
+    private String packageName;
+    private Long amount;
+}
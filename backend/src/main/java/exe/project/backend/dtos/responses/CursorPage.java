@@ -0,0 +1,25 @@
+package exe.project.backend.dtos.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Một trang kết quả keyset pagination. nextCursor = null khi đã hết dữ liệu.
+ * totalElements chỉ có khi client yêu cầu đếm (COUNT toàn bộ filter), mặc định null.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int size;
+    private Long totalElements;
+}
@@ -0,0 +1,16 @@
+package exe.project.backend.enums;
+
+/**
+ * Loại destination trong index local
+ */
+public enum DestinationKind {
+    /**
+     * Destination khách sạn (SEARCH_HOTEL_DESTINATION)
+     */
+    HOTEL,
+
+    /**
+     * Sân bay (SEARCH_FLIGHT_DESTINATION, type = AIRPORT)
+     */
+    FLIGHT
+}
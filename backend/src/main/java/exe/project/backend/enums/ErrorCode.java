@@ -18,7 +18,9 @@ public enum ErrorCode {
     USER_HAD_BEEN_DELETED(HttpStatus.BAD_REQUEST, "User Had Been Locked Or Deleted"),
     MISSED_OR_EXPIRED_OTP(HttpStatus.BAD_REQUEST, "Missed Or Expired OTP"),
     OTP_INVALID(HttpStatus.BAD_REQUEST, "OTP Invalid"),
-    LINK_OAUTH2_PROVIDER_FAILED(HttpStatus.BAD_REQUEST, "Link Oauth2 Provider Failed"),;
+    TOO_MANY_OTP_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "Too Many OTP Requests, Please Try Again Later"),
+    LINK_OAUTH2_PROVIDER_FAILED(HttpStatus.BAD_REQUEST, "Link Oauth2 Provider Failed"),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "Invalid Pagination Cursor"),;
 
     private final HttpStatus httpStatus;
     private final String message;
@@ -0,0 +1,16 @@
+package exe.project.backend.enums;
+
+/**
+ * Làn gửi email của MailDispatcher, worker luôn lấy làn HIGH trước
+ */
+public enum MailPriority {
+    /**
+     * OTP và email người dùng đang chờ trên màn hình
+     */
+    HIGH,
+
+    /**
+     * Email thông báo (subscription, gia hạn...)
+     */
+    NORMAL
+}
@@ -0,0 +1,11 @@
+package exe.project.backend.enums;
+
+/**
+ * Loại side effect ghi vào outbox, mỗi loại có một OutboxEventHandler
+ */
+public enum OutboxEventType {
+    /**
+     * Email xác nhận mua gói thành công (sau webhook PayOS)
+     */
+    SUBSCRIPTION_CONFIRMATION_EMAIL
+}
@@ -0,0 +1,21 @@
+package exe.project.backend.enums;
+
+/**
+ * Trạng thái xử lý của một outbox event
+ */
+public enum OutboxStatus {
+    /**
+     * Chờ worker xử lý (kể cả đang chờ retry)
+     */
+    PENDING,
+
+    /**
+     * Đã xử lý xong
+     */
+    DONE,
+
+    /**
+     * Hết số lần retry, cần xem tay
+     */
+    FAILED
+}
@@ -2,18 +2,37 @@ package exe.project.backend.enums;
 
 import lombok.Getter;
 
+import java.time.Duration;
+
 @Getter
 public enum RapidApiEndPoint {
-    SEARCH_HOTEL_BY_COORDINATE("/hotels/searchHotelsByCoordinates"),
-    SEARCH_HOTEL_DESTINATION("/hotels/searchDestination"),
-    GET_HOTEL_DETAIL("/hotels/getHotelDetails"),
+    SEARCH_HOTEL_BY_COORDINATE("/hotels/searchHotelsByCoordinates", Duration.ofMinutes(10), RapidApiUpstream.HOTEL),
+    SEARCH_HOTEL_DESTINATION("/hotels/searchDestination", Duration.ofHours(12), RapidApiUpstream.DESTINATION),
+    GET_HOTEL_DETAIL("/hotels/getHotelDetails", Duration.ofMinutes(30), RapidApiUpstream.HOTEL),
 
-    SEARCH_FLIGHT_DESTINATION("/flights/searchDestination"),
-    SEARCH_FLIGHT("/flights/searchFlights"),;
+    SEARCH_FLIGHT_DESTINATION("/flights/searchDestination", Duration.ofHours(12), RapidApiUpstream.DESTINATION),
+    SEARCH_FLIGHT("/flights/searchFlights", Duration.ofMinutes(5), RapidApiUpstream.FLIGHT),;
 
     private final String path;
 
-    RapidApiEndPoint(String path) {
+    // Thời gian cache response của endpoint (giá vé/phòng thay đổi nhanh, destination gần như cố định)
+    private final Duration cacheTtl;
+
+    // Executor xử lý response của endpoint
+    private final RapidApiUpstream upstream;
+
+    RapidApiEndPoint(String path, Duration cacheTtl, RapidApiUpstream upstream) {
         this.path = path;
+        this.cacheTtl = cacheTtl;
+        this.upstream = upstream;
+    }
+
+    public static RapidApiEndPoint fromPath(String path) {
+        for (RapidApiEndPoint endPoint : values()) {
+            if (endPoint.path.equals(path)) {
+                return endPoint;
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,11 @@
+package exe.project.backend.enums;
+
+/**
+ * Nhóm endpoint RapidAPI, mỗi nhóm một executor riêng (xem RapidApiExecutors)
+ * để một upstream chậm/quá tải không chiếm thread của nhóm khác.
+ */
+public enum RapidApiUpstream {
+    HOTEL,
+    FLIGHT,
+    DESTINATION
+}
@@ -0,0 +1,71 @@
+package exe.project.backend.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Độ chi tiết của biểu đồ thống kê admin, khớp với đơn vị của date_trunc trong Postgres
+ */
+@Getter
+@RequiredArgsConstructor
+public enum StatsGranularity {
+    /**
+     * Theo ngày
+     */
+    DAY("day", DateTimeFormatter.ofPattern("dd/MM")),
+
+    /**
+     * Theo tuần (ISO, bắt đầu thứ Hai như date_trunc('week')), label là ngày đầu tuần
+     */
+    WEEK("week", DateTimeFormatter.ofPattern("dd/MM")),
+
+    /**
+     * Theo tháng
+     */
+    MONTH("month", DateTimeFormatter.ofPattern("MM/yyyy"));
+
+    private final String truncUnit;
+    private final DateTimeFormatter labelFormat;
+
+    /**
+     * Không truyền hoặc sai giá trị thì mặc định DAY (giống hành vi cũ)
+     */
+    public static StatsGranularity from(String type) {
+        if (type != null) {
+            for (StatsGranularity granularity : values()) {
+                if (granularity.name().equalsIgnoreCase(type)) {
+                    return granularity;
+                }
+            }
+        }
+        return DAY;
+    }
+
+    /**
+     * Ngày đầu bucket chứa {@code date}, giống date_trunc(unit, date)
+     */
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate next(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+        };
+    }
+
+    public String label(LocalDate bucketStart) {
+        return bucketStart.format(labelFormat);
+    }
+}
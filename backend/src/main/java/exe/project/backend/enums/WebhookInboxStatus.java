@@ -0,0 +1,21 @@
+package exe.project.backend.enums;
+
+/**
+ * Trạng thái webhook PayOS trong hàng đợi nhận (payment_webhook_inbox)
+ */
+public enum WebhookInboxStatus {
+    /**
+     * Đã verify chữ ký và lưu, chờ worker xử lý (kể cả đang chờ retry)
+     */
+    RECEIVED,
+
+    /**
+     * Đã xử lý xong
+     */
+    PROCESSED,
+
+    /**
+     * Hết số lần retry, cần xem tay
+     */
+    FAILED
+}
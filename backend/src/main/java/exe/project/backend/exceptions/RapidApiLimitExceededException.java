@@ -0,0 +1,12 @@
+package exe.project.backend.exceptions;
+
+/**
+ * Request RapidAPI bị từ chối ngay vì endpoint đã chạm limit đồng thời (AimdLimiter).
+ * CircuitBreaker/Retry bỏ qua lỗi này (application.yml), chỉ fallback trả kết quả rỗng.
+ */
+public class RapidApiLimitExceededException extends RuntimeException {
+
+    public RapidApiLimitExceededException(String endpoint, int limit) {
+        super("RapidAPI concurrency limit reached for " + endpoint + " (limit " + limit + ")");
+    }
+}
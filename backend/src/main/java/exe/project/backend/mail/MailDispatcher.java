@@ -0,0 +1,270 @@
+package exe.project.backend.mail;
+
+import exe.project.backend.enums.MailPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Pipeline gửi email riêng, không dùng chung taskExecutor.
+ * Mỗi {@link MailPriority} có một hàng đợi giới hạn; đầy thì submit trả future lỗi ngay (backpressure) thay vì dồn vô hạn.
+ * Worker luôn lấy làn HIGH trước nên OTP không phải chờ sau email hàng loạt.
+ * Mỗi worker giữ một kết nối SMTP mở sẵn và gửi theo lô trên kết nối đó (không login/STARTTLS lại mỗi email),
+ * đóng khi rảnh quá mail-dispatch.idle-close-ms. Chỉ gửi lại (một lần, trên kết nối mới) khi kết nối đã rớt;
+ * server từ chối trên kết nối còn sống hoặc SendFailedException (có thể đã nhận một phần) thì báo lỗi, không gửi lại.
+ * Mỗi job có một future hoàn thành khi server SMTP đã nhận email (hoặc lỗi), để caller cần chắc chắn (outbox) chờ được.
+ * Metrics (tag lane): mail.queue.size, mail.queue.wait, mail.send, mail.sent, mail.failed, mail.rejected.
+ */
+@Slf4j
+@Component
+public class MailDispatcher {
+
+    private final JavaMailSenderImpl mailSender;
+    private final int batchSize;
+    private final long idleCloseMs;
+
+    private final Map<MailPriority, BlockingQueue<MailJob>> lanes = new EnumMap<>(MailPriority.class);
+    private final Map<MailPriority, LaneMetrics> metrics = new EnumMap<>(MailPriority.class);
+    // Số job đang chờ trên mọi làn, worker chờ ở đây thay vì poll từng hàng đợi
+    private final Semaphore pending = new Semaphore(0);
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public MailDispatcher(
+            JavaMailSenderImpl mailSender,
+            MeterRegistry meterRegistry,
+            @Value("${mail-dispatch.workers:2}") int workerCount,
+            @Value("${mail-dispatch.batch-size:20}") int batchSize,
+            @Value("${mail-dispatch.high-queue-capacity:1000}") int highCapacity,
+            @Value("${mail-dispatch.normal-queue-capacity:5000}") int normalCapacity,
+            @Value("${mail-dispatch.idle-close-ms:30000}") long idleCloseMs) {
+        this.mailSender = mailSender;
+        this.batchSize = batchSize;
+        this.idleCloseMs = idleCloseMs;
+
+        lanes.put(MailPriority.HIGH, new LinkedBlockingQueue<>(highCapacity));
+        lanes.put(MailPriority.NORMAL, new LinkedBlockingQueue<>(normalCapacity));
+        lanes.forEach((priority, queue) -> metrics.put(priority, new LaneMetrics(meterRegistry, priority, queue)));
+
+        ThreadFactory threadFactory = new CustomizableThreadFactory("Mail-");
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threadFactory.newThread(this::runWorker);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Đưa email vào làn {@code priority}. {@code body} được gọi ở mail worker (render template ngoài thread request).
+     *
+     * @return future hoàn thành khi đã gửi xong; lỗi nếu làn đã đầy (MessagingException ngay lập tức),
+     * gửi thất bại hoặc dispatcher dừng. Cancel future trước khi tới lượt thì job bị bỏ qua.
+     */
+    public CompletableFuture<Void> submit(MailPriority priority, String to, String subject, Supplier<String> body) {
+        MailJob job = new MailJob(priority, to, subject, body, System.nanoTime(), new CompletableFuture<>());
+        if (!lanes.get(priority).offer(job)) {
+            metrics.get(priority).rejected.increment();
+            log.warn("Mail queue {} is full, rejecting email to {}", priority, to);
+            return CompletableFuture.failedFuture(new MessagingException("Mail queue is full (" + priority + ")"));
+        }
+        pending.release();
+        return job.delivery();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+
+        // Email còn trong hàng đợi không được gửi: báo lỗi để caller (outbox) biết mà retry sau
+        for (BlockingQueue<MailJob> queue : lanes.values()) {
+            MailJob job;
+            while ((job = queue.poll()) != null) {
+                job.delivery().completeExceptionally(new MessagingException("Mail dispatcher stopped"));
+            }
+        }
+    }
+
+    private void runWorker() {
+        Transport transport = null;
+        try {
+            while (running) {
+                if (!pending.tryAcquire(idleCloseMs, TimeUnit.MILLISECONDS)) {
+                    // Rảnh lâu thì tự đóng, tránh server SMTP cắt kết nối giữa chừng
+                    transport = close(transport);
+                    continue;
+                }
+
+                List<MailJob> batch = new ArrayList<>(batchSize);
+                batch.add(nextJob());
+                while (batch.size() < batchSize && pending.tryAcquire()) {
+                    batch.add(nextJob());
+                }
+
+                for (MailJob job : batch) {
+                    try {
+                        transport = send(transport, job);
+                    } catch (RuntimeException e) {
+                        transport = close(transport);
+                        job.delivery().completeExceptionally(e);
+                        metrics.get(job.priority()).failed.increment();
+                        log.error("Unexpected error sending email to {}", job.to(), e);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(transport);
+        }
+    }
+
+    // Permit của semaphore đảm bảo luôn có ít nhất một job trên các làn
+    private MailJob nextJob() {
+        MailJob job = lanes.get(MailPriority.HIGH).poll();
+        return job != null ? job : lanes.get(MailPriority.NORMAL).poll();
+    }
+
+    private Transport send(Transport transport, MailJob job) {
+        if (job.delivery().isDone()) {
+            // Caller đã huỷ (hết thời gian chờ)
+            return transport;
+        }
+        LaneMetrics lane = metrics.get(job.priority());
+        lane.queueWait.record(System.nanoTime() - job.enqueuedAt(), TimeUnit.NANOSECONDS);
+
+        MimeMessage message;
+        try {
+            message = build(job);
+        } catch (Exception e) {
+            lane.failed.increment();
+            job.delivery().completeExceptionally(e);
+            log.error("Cannot build email to {}", job.to(), e);
+            return transport;
+        }
+
+        long start = System.nanoTime();
+        boolean retry = false;
+        try {
+            transport = connected(transport);
+        } catch (MessagingException e) {
+            // Chưa gửi gì: mở kết nối mới thử lại
+            retry = true;
+        }
+        if (!retry) {
+            try {
+                transport.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException e) {
+                // Server đã trả lời (từ chối / nhận một phần) thì gửi lại có thể thành gửi trùng
+                if (e instanceof SendFailedException || transport.isConnected()) {
+                    return fail(transport, job, e);
+                }
+                retry = true;
+            }
+        }
+        if (retry) {
+            // Kết nối cũ đã bị server đóng: mở kết nối mới và thử lại một lần
+            transport = close(transport);
+            try {
+                transport = connected(null);
+                transport.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException e) {
+                return fail(close(transport), job, e);
+            }
+        }
+        lane.send.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        lane.sent.increment();
+        job.delivery().complete(null);
+        return transport;
+    }
+
+    private Transport fail(Transport transport, MailJob job, MessagingException e) {
+        metrics.get(job.priority()).failed.increment();
+        job.delivery().completeExceptionally(e);
+        log.error("Failed to send email to {}", job.to(), e);
+        return transport;
+    }
+
+    private MimeMessage build(MailJob job) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        if (mailSender.getUsername() != null) {
+            helper.setFrom(mailSender.getUsername());
+        }
+        helper.setTo(job.to());
+        helper.setSubject(job.subject());
+        helper.setText(job.body().get(), true);
+        helper.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    private Transport connected(Transport transport) throws MessagingException {
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        close(transport);
+        Transport fresh = mailSender.getSession().getTransport(mailSender.getProtocol());
+        fresh.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        return fresh;
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP connection: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private record MailJob(MailPriority priority, String to, String subject, Supplier<String> body, long enqueuedAt,
+                           CompletableFuture<Void> delivery) {
+    }
+
+    private static final class LaneMetrics {
+        private final Counter sent;
+        private final Counter failed;
+        private final Counter rejected;
+        private final Timer queueWait;
+        private final Timer send;
+
+        private LaneMetrics(MeterRegistry registry, MailPriority priority, BlockingQueue<MailJob> queue) {
+            String lane = priority.name().toLowerCase();
+            Gauge.builder("mail.queue.size", queue, BlockingQueue::size).tag("lane", lane).register(registry);
+            this.sent = Counter.builder("mail.sent").tag("lane", lane).register(registry);
+            this.failed = Counter.builder("mail.failed").tag("lane", lane).register(registry);
+            this.rejected = Counter.builder("mail.rejected").tag("lane", lane).register(registry);
+            this.queueWait = Timer.builder("mail.queue.wait").tag("lane", lane).register(registry);
+            this.send = Timer.builder("mail.send").tag("lane", lane).register(registry);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package exe.project.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Rollup doanh thu theo ngày và theo gói subscription
+ */
+@Entity
+@Table(name = "daily_package_revenue")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(DailyPackageRevenueId.class)
+public class DailyPackageRevenue {
+
+    @Id
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Id
+    @Column(name = "package_id", nullable = false)
+    private Long packageId;
+
+    @Column(nullable = false)
+    private long revenue;
+
+    @Column(name = "successful_payments", nullable = false)
+    private long successfulPayments;
+}
@@ -0,0 +1,17 @@
+package exe.project.backend.models;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class DailyPackageRevenueId implements Serializable {
+
+    private LocalDate statDate;
+    private Long packageId;
+}
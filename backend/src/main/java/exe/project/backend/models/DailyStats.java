@@ -0,0 +1,36 @@
+package exe.project.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Rollup theo ngày cho dashboard admin: user mới, doanh thu và số payment SUCCESS.
+ * Cộng dồn khi có user/payment mới, đối soát lại toàn bộ mỗi đêm
+ */
+@Entity
+@Table(name = "daily_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyStats {
+
+    @Id
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "new_users", nullable = false)
+    private long newUsers;
+
+    /**
+     * Tổng amount (VNĐ) của payment SUCCESS tạo trong ngày
+     */
+    @Column(nullable = false)
+    private long revenue;
+
+    @Column(name = "successful_payments", nullable = false)
+    private long successfulPayments;
+}
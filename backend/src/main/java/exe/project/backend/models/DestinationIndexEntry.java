@@ -0,0 +1,40 @@
+package exe.project.backend.models;
+
+import exe.project.backend.enums.DestinationKind;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Destination đã resolve từ RapidAPI, dùng để trả lời các lần tìm sau mà không cần gọi lại upstream
+ */
+@Entity
+@Table(name = "destination_index", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "kind", "lookup_key" })
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DestinationIndexEntry extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DestinationKind kind;
+
+    /**
+     * Tên địa điểm đã chuẩn hoá (lowercase, bỏ dấu tiếng Việt)
+     */
+    @Column(name = "lookup_key", nullable = false, length = 255)
+    private String lookupKey;
+
+    /**
+     * HotelDestinationInfo / FlightDestinationInfor dạng JSON
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+}
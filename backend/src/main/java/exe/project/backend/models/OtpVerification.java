@@ -7,7 +7,12 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table
+@Table(indexes = {
+        // OTP mới nhất chưa dùng của email theo mục đích (verify)
+        @Index(name = "idx_otp_verification_lookup", columnList = "email, purpose, used, created_at DESC"),
+        // Job dọn OTP hết hạn
+        @Index(name = "idx_otp_verification_expires_at", columnList = "expires_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,53 @@
+package exe.project.backend.models;
+
+import exe.project.backend.enums.OutboxEventType;
+import exe.project.backend.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Side effect ghi cùng transaction nghiệp vụ, worker xử lý sau khi commit (transactional outbox)
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        // Worker lấy event PENDING đến hạn theo thứ tự id
+        @Index(name = "idx_outbox_events_status_next_attempt", columnList = "status, next_attempt_at, id")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEvent extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 50)
+    private OutboxEventType eventType;
+
+    /**
+     * Dữ liệu cho handler dạng JSON
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
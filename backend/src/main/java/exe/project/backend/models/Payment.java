@@ -9,7 +9,12 @@ import lombok.*;
  * Dùng cho audit, đối soát, và tránh xử lý callback trùng
  */
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        // Lịch sử thanh toán của user: lọc user_id + status, seek theo (create_at, id) DESC
+        @Index(name = "idx_payments_user_status_create_at", columnList = "user_id, status, create_at DESC, id DESC"),
+        // Listing admin keyset theo (create_at, id) DESC
+        @Index(name = "idx_payments_create_at_id", columnList = "create_at DESC, id DESC")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -0,0 +1,58 @@
+package exe.project.backend.models;
+
+import exe.project.backend.enums.WebhookInboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Webhook PayOS đã verify chữ ký, lưu lại để ACK ngay và xử lý bất đồng bộ.
+ * dedup_key unique nên PayOS gửi lại cùng một webhook chỉ tốn một lần insert bị bỏ qua.
+ */
+@Entity
+@Table(name = "payment_webhook_inbox", indexes = {
+        // Quét webhook chưa xử lý đến hạn (khôi phục sau crash, retry)
+        @Index(name = "idx_payment_webhook_inbox_status_next_attempt", columnList = "status, next_attempt_at, id")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentWebhookInbox extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_code", nullable = false)
+    private Long orderCode;
+
+    /**
+     * orderCode:code:reference của webhook
+     */
+    @Column(name = "dedup_key", nullable = false, unique = true, length = 255)
+    private String dedupKey;
+
+    /**
+     * WebhookData đã verify dạng JSON
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private WebhookInboxStatus status = WebhookInboxStatus.RECEIVED;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
@@ -7,7 +7,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table
+@Table(indexes = {
+        @Index(name = "idx_token_blacklist_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,6 +25,10 @@ public class TokenBlacklist {
     @Column(nullable = false)
     private String token;
 
+    // SHA-256 hex của token, nạp vào bộ nhớ thay cho cột @Lob (bản ghi cũ được backfill khi khởi động)
+    @Column(length = 64)
+    private String tokenHash;
+
     @Column(nullable = false)
     private String tokenType; // ACCESS / REFRESH
 
@@ -5,7 +5,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "Users")
+@Table(name = "Users", indexes = {
+        // Listing admin keyset theo (create_at, id) DESC
+        @Index(name = "idx_users_create_at_id", columnList = "create_at DESC, id DESC")
+})
 @Getter
 @Setter
 @AllArgsConstructor
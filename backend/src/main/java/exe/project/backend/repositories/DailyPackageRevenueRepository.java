@@ -0,0 +1,39 @@
+package exe.project.backend.repositories;
+
+import exe.project.backend.models.DailyPackageRevenue;
+import exe.project.backend.models.DailyPackageRevenueId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyPackageRevenueRepository extends JpaRepository<DailyPackageRevenue, DailyPackageRevenueId> {
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_package_revenue (stat_date, package_id, revenue, successful_payments) " +
+            "VALUES (:statDate, :packageId, :revenue, :payments) " +
+            "ON CONFLICT (stat_date, package_id) DO UPDATE SET " +
+            "revenue = daily_package_revenue.revenue + EXCLUDED.revenue, " +
+            "successful_payments = daily_package_revenue.successful_payments + EXCLUDED.successful_payments",
+            nativeQuery = true)
+    void increment(@Param("statDate") LocalDate statDate,
+                   @Param("packageId") Long packageId,
+                   @Param("revenue") long revenue,
+                   @Param("payments") long payments);
+
+    /**
+     * Doanh thu theo tên gói trong khoảng ngày, đọc từ rollup thay vì quét bảng payments
+     */
+    @Query("SELECT sp.displayName, SUM(r.revenue) " +
+            "FROM DailyPackageRevenue r JOIN SubscriptionPackage sp ON sp.id = r.packageId " +
+            "WHERE r.statDate BETWEEN :start AND :end " +
+            "GROUP BY sp.displayName")
+    List<Object[]> sumRevenueByPackageBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Modifying
+    @Query("DELETE FROM DailyPackageRevenue r")
+    void deleteAllRows();
+}
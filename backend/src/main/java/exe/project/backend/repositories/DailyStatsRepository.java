@@ -0,0 +1,38 @@
+package exe.project.backend.repositories;
+
+import exe.project.backend.models.DailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface DailyStatsRepository extends JpaRepository<DailyStats, LocalDate> {
+
+    /**
+     * Cộng dồn nguyên tử (upsert), an toàn khi nhiều request cùng cập nhật một ngày
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_stats (stat_date, new_users, revenue, successful_payments) " +
+            "VALUES (:statDate, :newUsers, :revenue, :payments) " +
+            "ON CONFLICT (stat_date) DO UPDATE SET " +
+            "new_users = daily_stats.new_users + EXCLUDED.new_users, " +
+            "revenue = daily_stats.revenue + EXCLUDED.revenue, " +
+            "successful_payments = daily_stats.successful_payments + EXCLUDED.successful_payments",
+            nativeQuery = true)
+    void increment(@Param("statDate") LocalDate statDate,
+                   @Param("newUsers") long newUsers,
+                   @Param("revenue") long revenue,
+                   @Param("payments") long payments);
+
+    @Query("SELECT COALESCE(SUM(d.newUsers), 0) FROM DailyStats d")
+    long sumNewUsers();
+
+    @Query("SELECT COALESCE(SUM(d.revenue), 0) FROM DailyStats d")
+    long sumRevenue();
+
+    @Modifying
+    @Query("DELETE FROM DailyStats d")
+    void deleteAllRows();
+}
@@ -0,0 +1,17 @@
+package exe.project.backend.repositories;
+
+import exe.project.backend.enums.DestinationKind;
+import exe.project.backend.models.DestinationIndexEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository cho DestinationIndexEntry
+ */
+@Repository
+public interface DestinationIndexRepository extends JpaRepository<DestinationIndexEntry, Long> {
+
+    Optional<DestinationIndexEntry> findByKindAndLookupKey(DestinationKind kind, String lookupKey);
+}
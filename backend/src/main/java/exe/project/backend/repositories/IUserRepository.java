@@ -4,12 +4,34 @@ import exe.project.backend.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface IUserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     Optional<User> findByEmail(String email);
 
     long countByCreateAtBetween(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Số user đăng ký theo từng bucket (day/week/month) trong [start, end), một query duy nhất.
+     * Mỗi dòng: [bucket start (timestamp), count]; bucket không có user thì không có dòng.
+     */
+    @Query(value = "SELECT date_trunc(:unit, u.create_at) AS bucket, COUNT(*) " +
+            "FROM users u " +
+            "WHERE u.create_at >= :start AND u.create_at < :end " +
+            "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<Object[]> countRegistrationsByBucket(@Param("unit") String unit,
+                                              @Param("start") LocalDateTime start,
+                                              @Param("end") LocalDateTime end);
+
+    /**
+     * Nguồn đối soát rollup: [ngày, số user tạo trong ngày] cho toàn bộ bảng
+     */
+    @Query(value = "SELECT CAST(u.create_at AS date) AS stat_date, COUNT(*) " +
+            "FROM users u GROUP BY 1", nativeQuery = true)
+    List<Object[]> countRegistrationsByDay();
 }
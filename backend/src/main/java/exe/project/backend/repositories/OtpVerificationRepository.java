@@ -2,6 +2,10 @@ package exe.project.backend.repositories;
 
 import exe.project.backend.models.OtpVerification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -14,5 +18,11 @@ public interface OtpVerificationRepository
             String purpose
     );
 
-    void deleteByExpiresAtBefore(LocalDateTime time);
+    /**
+     * Xoá một lệnh (không load entity) các OTP đã dùng hoặc đã hết hạn
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OtpVerification o WHERE o.used = true OR o.expiresAt < :time")
+    int deleteUsedOrExpired(@Param("time") LocalDateTime time);
 }
\ No newline at end of file
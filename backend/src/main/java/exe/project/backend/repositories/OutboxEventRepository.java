@@ -0,0 +1,24 @@
+package exe.project.backend.repositories;
+
+import exe.project.backend.enums.OutboxStatus;
+import exe.project.backend.models.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Nhận một lô event đến hạn và khoá lại; SKIP LOCKED để nhiều worker/node không lấy trùng và không chờ nhau
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Transactional
+    void deleteByStatusAndUpdateAtBefore(OutboxStatus status, LocalDateTime time);
+}
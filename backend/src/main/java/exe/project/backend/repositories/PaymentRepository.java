@@ -1,5 +1,7 @@
 package exe.project.backend.repositories;
 
+import exe.project.backend.dtos.responses.PaymentHistoryResponse;
+import exe.project.backend.enums.PaymentStatus;
 import exe.project.backend.models.Payment;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
@@ -40,6 +42,46 @@ public interface PaymentRepository extends JpaRepository<Payment, Long>, JpaSpec
     Page<Payment> findByUserIdAndStatusOrderByCreateAtDesc(Long userId, exe.project.backend.enums.PaymentStatus status,
             Pageable pageable);
 
+    /**
+     * Lịch sử thanh toán dạng projection: join subscription_packages một lần trong cùng query (không N+1)
+     */
+    @Query(value = "SELECT new exe.project.backend.dtos.responses.PaymentHistoryResponse(" +
+            "p.id, COALESCE(sp.displayName, 'Unknown Package'), p.amount, p.status, p.createAt) " +
+            "FROM Payment p LEFT JOIN p.subscriptionPackage sp " +
+            "WHERE p.userId = :userId AND p.status = :status " +
+            "ORDER BY p.createAt DESC, p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Payment p WHERE p.userId = :userId AND p.status = :status")
+    Page<PaymentHistoryResponse> findHistory(@Param("userId") Long userId,
+                                             @Param("status") PaymentStatus status,
+                                             Pageable pageable);
+
+    /**
+     * Keyset pagination: các payment đứng sau (createAt, id) của trang trước, không OFFSET, không COUNT
+     */
+    @Query("SELECT new exe.project.backend.dtos.responses.PaymentHistoryResponse(" +
+            "p.id, COALESCE(sp.displayName, 'Unknown Package'), p.amount, p.status, p.createAt) " +
+            "FROM Payment p LEFT JOIN p.subscriptionPackage sp " +
+            "WHERE p.userId = :userId AND p.status = :status " +
+            "AND (p.createAt < :createAt OR (p.createAt = :createAt AND p.id < :id)) " +
+            "ORDER BY p.createAt DESC, p.id DESC")
+    List<PaymentHistoryResponse> findHistoryAfter(@Param("userId") Long userId,
+                                                  @Param("status") PaymentStatus status,
+                                                  @Param("createAt") LocalDateTime createAt,
+                                                  @Param("id") Long id,
+                                                  Pageable limit);
+
+    /**
+     * Trang đầu của keyset pagination
+     */
+    @Query("SELECT new exe.project.backend.dtos.responses.PaymentHistoryResponse(" +
+            "p.id, COALESCE(sp.displayName, 'Unknown Package'), p.amount, p.status, p.createAt) " +
+            "FROM Payment p LEFT JOIN p.subscriptionPackage sp " +
+            "WHERE p.userId = :userId AND p.status = :status " +
+            "ORDER BY p.createAt DESC, p.id DESC")
+    List<PaymentHistoryResponse> findHistoryFirst(@Param("userId") Long userId,
+                                                  @Param("status") PaymentStatus status,
+                                                  Pageable limit);
+
     /**
      * Lấy lịch sử thanh toán của user
      * Sort theo createAt desc
@@ -52,6 +94,25 @@ public interface PaymentRepository extends JpaRepository<Payment, Long>, JpaSpec
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = exe.project.backend.enums.PaymentStatus.SUCCESS AND p.createAt BETWEEN :start AND :end")
     Long sumRevenueBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
+    /**
+     * Doanh thu (payment SUCCESS) theo từng bucket (day/week/month) trong [start, end), một query duy nhất.
+     * Mỗi dòng: [bucket start (timestamp), sum amount]; bucket không có doanh thu thì không có dòng.
+     */
+    @Query(value = "SELECT date_trunc(:unit, p.create_at) AS bucket, SUM(p.amount) " +
+            "FROM payments p " +
+            "WHERE p.status = 'SUCCESS' AND p.create_at >= :start AND p.create_at < :end " +
+            "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<Object[]> sumRevenueByBucket(@Param("unit") String unit,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
+
+    /**
+     * Nguồn đối soát rollup: [ngày, package_id, sum amount, số payment] của payment SUCCESS
+     */
+    @Query(value = "SELECT CAST(p.create_at AS date) AS stat_date, p.package_id, SUM(p.amount), COUNT(*) " +
+            "FROM payments p WHERE p.status = 'SUCCESS' GROUP BY 1, 2", nativeQuery = true)
+    List<Object[]> sumSuccessfulRevenueByDayAndPackage();
+
     @Query("SELECT p.subscriptionPackage.displayName, SUM(p.amount) " +
             "FROM Payment p " +
             "WHERE p.status = exe.project.backend.enums.PaymentStatus.SUCCESS AND p.createAt BETWEEN :start AND :end " +
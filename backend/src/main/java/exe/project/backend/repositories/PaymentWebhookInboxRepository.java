@@ -0,0 +1,56 @@
+package exe.project.backend.repositories;
+
+import exe.project.backend.enums.WebhookInboxStatus;
+import exe.project.backend.models.PaymentWebhookInbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface PaymentWebhookInboxRepository extends JpaRepository<PaymentWebhookInbox, Long> {
+
+    /**
+     * Lưu webhook, trùng dedup_key (PayOS gửi lại) thì bỏ qua và trả về rỗng.
+     * Thời gian truyền từ JVM (không dùng CURRENT_TIMESTAMP): claim so next_attempt_at với giờ JVM,
+     * DB chạy nhanh hơn vài ms là dispatch ngay sau insert không nhận được lease.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO payment_webhook_inbox (order_code, dedup_key, payload, status, attempts, next_attempt_at, " +
+            "create_at, update_at, delete_flag) " +
+            "VALUES (:orderCode, :dedupKey, :payload, 'RECEIVED', 0, :now, :now, :now, false) " +
+            "ON CONFLICT (dedup_key) DO NOTHING RETURNING id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("orderCode") Long orderCode,
+                                  @Param("dedupKey") String dedupKey,
+                                  @Param("payload") String payload,
+                                  @Param("now") LocalDateTime now);
+
+    /**
+     * Nhận webhook để xử lý theo kiểu lease; trả về 0 nếu worker khác đã nhận hoặc đã xử lý xong
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentWebhookInbox w SET w.attempts = w.attempts + 1, w.nextAttemptAt = :leaseUntil " +
+            "WHERE w.id = :id AND w.status = exe.project.backend.enums.WebhookInboxStatus.RECEIVED " +
+            "AND w.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentWebhookInbox w SET w.status = :status, w.nextAttemptAt = :nextAttemptAt, " +
+            "w.lastError = :lastError, w.updateAt = CURRENT_TIMESTAMP WHERE w.id = :id")
+    int updateResult(@Param("id") Long id,
+                     @Param("status") WebhookInboxStatus status,
+                     @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                     @Param("lastError") String lastError);
+
+    List<PaymentWebhookInbox> findTop200ByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            WebhookInboxStatus status, LocalDateTime time);
+
+    @Transactional
+    void deleteByStatusAndCreateAtBefore(WebhookInboxStatus status, LocalDateTime time);
+}
@@ -1,14 +1,31 @@
 package exe.project.backend.repositories;
 
+import exe.project.backend.dtos.local.RevokedTokenHash;
 import exe.project.backend.models.TokenBlacklist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public interface TokenBlacklistRepository
         extends JpaRepository<TokenBlacklist, Long> {
 
-    boolean existsByToken(String token);
+    // Bản ghi cũ chưa có token_hash, cần backfill một lần
+    List<TokenBlacklist> findByTokenHashIsNullAndExpiresAtAfter(LocalDateTime time);
 
+    @Query("SELECT new exe.project.backend.dtos.local.RevokedTokenHash(t.tokenHash, t.expiresAt) " +
+            "FROM TokenBlacklist t WHERE t.tokenHash IS NOT NULL AND t.expiresAt > :time")
+    List<RevokedTokenHash> findActiveHashes(@Param("time") LocalDateTime time);
+
+    // Bản ghi mới (do node khác thêm) trong cửa sổ đồng bộ
+    @Query("SELECT new exe.project.backend.dtos.local.RevokedTokenHash(t.tokenHash, t.expiresAt) " +
+            "FROM TokenBlacklist t WHERE t.tokenHash IS NOT NULL AND t.createdAt > :createdAfter AND t.expiresAt > :time")
+    List<RevokedTokenHash> findActiveHashesCreatedAfter(@Param("createdAfter") LocalDateTime createdAfter,
+                                                        @Param("time") LocalDateTime time);
+
+    @Transactional
     void deleteByExpiresAtBefore(LocalDateTime time);
 }
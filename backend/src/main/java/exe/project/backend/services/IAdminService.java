@@ -1,9 +1,11 @@
 package exe.project.backend.services;
 
+import exe.project.backend.dtos.local.SubscriptionPackageInfo;
 import exe.project.backend.dtos.requests.PaymentFilterRequest;
 import exe.project.backend.dtos.requests.PaymentUpdateRequest;
 import exe.project.backend.dtos.requests.SubscriptionExtensionRequest;
 import exe.project.backend.dtos.requests.UserFilterRequest;
+import exe.project.backend.dtos.responses.CursorPage;
 import exe.project.backend.dtos.responses.DashboardStatsResponse;
 import exe.project.backend.dtos.responses.StatsResponse;
 import exe.project.backend.models.Payment;
@@ -12,6 +14,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
+import java.util.Collection;
 
 public interface IAdminService {
     DashboardStatsResponse getDashboardStats();
@@ -24,9 +27,18 @@ public interface IAdminService {
 
     Page<User> getUsers(UserFilterRequest request, Pageable pageable);
 
+    /**
+     * Keyset pagination theo (createAt, id) DESC, includeTotal = true mới chạy COUNT
+     */
+    CursorPage<User> getUsers(UserFilterRequest request, String cursor, int size, boolean includeTotal);
+
     void extendSubscription(SubscriptionExtensionRequest request);
 
     Page<Payment> getPayments(PaymentFilterRequest request, Pageable pageable);
 
+    CursorPage<Payment> getPayments(PaymentFilterRequest request, String cursor, int size, boolean includeTotal);
+
     Payment updatePayment(Long id, PaymentUpdateRequest request);
+
+    Collection<SubscriptionPackageInfo> reloadPackageCatalog();
 }
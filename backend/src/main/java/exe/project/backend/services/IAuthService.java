@@ -16,7 +16,10 @@ public interface IAuthService {
 
     LoginResponse loginWithOauth2O(String code, String provider);
 
-    void sendOtpLogin(String email);
+    /**
+     * @param clientIp IP của request, dùng cho giới hạn gửi OTP theo IP (null thì chỉ giới hạn theo email)
+     */
+    void sendOtpLogin(String email, String clientIp);
 
     LoginResponse verifyOtpLogin(VerifyOtp request);
 }
@@ -0,0 +1,15 @@
+package exe.project.backend.services;
+
+import exe.project.backend.models.Payment;
+import exe.project.backend.models.User;
+
+public interface IDashboardRollupService {
+
+    void recordNewUser(User user);
+
+    void recordPaymentSuccess(Payment payment);
+
+    void recordPaymentReverted(Payment payment);
+
+    void reconcile();
+}
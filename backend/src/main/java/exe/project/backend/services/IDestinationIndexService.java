@@ -0,0 +1,24 @@
+package exe.project.backend.services;
+
+import exe.project.backend.dtos.local.flight.FlightDestinationInfor;
+import exe.project.backend.dtos.local.hotel.HotelDestinationInfo;
+
+/**
+ * Index local các destination/sân bay đã từng resolve, tra cứu trong bộ nhớ trước khi gọi RapidAPI
+ */
+public interface IDestinationIndexService {
+
+    /**
+     * @return destination khớp query (chính xác hoặc theo prefix không nhập nhằng), null nếu miss
+     */
+    HotelDestinationInfo findHotelDestination(String query);
+
+    FlightDestinationInfor findFlightDestination(String query);
+
+    /**
+     * Ghi nhận kết quả từ RapidAPI theo query người dùng; thêm key city_name chỉ khi destination là city
+     */
+    void indexHotelDestination(String query, HotelDestinationInfo destination);
+
+    void indexFlightDestination(String query, FlightDestinationInfor destination);
+}
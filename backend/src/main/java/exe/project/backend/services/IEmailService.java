@@ -8,7 +8,13 @@ public interface IEmailService {
     void sendEmail(String to, String subject, String body) throws MessagingException;
 
     /**
-     * Gửi email xác nhận mua subscription thành công
+     * Gửi OTP đăng nhập qua làn ưu tiên, không xếp hàng sau email subscription
+     */
+    void sendOtpEmail(String toEmail, String userName, String otp) throws MessagingException;
+
+    /**
+     * Gửi email xác nhận mua subscription thành công. Chờ tới khi server SMTP nhận email
+     * (lỗi / hết mail-dispatch.delivery-timeout-ms thì ném MessagingException) để outbox retry được.
      * 
      * @param toEmail     Email người nhận
      * @param userName    Tên user
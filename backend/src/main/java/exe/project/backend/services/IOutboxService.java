@@ -0,0 +1,21 @@
+package exe.project.backend.services;
+
+import exe.project.backend.enums.OutboxEventType;
+
+/**
+ * Transactional outbox: ghi side effect cùng transaction nghiệp vụ, xử lý sau khi commit
+ */
+public interface IOutboxService {
+
+    /**
+     * Ghi event vào outbox trong transaction hiện tại (bắt buộc phải có), worker được đánh thức sau khi commit
+     */
+    void publish(OutboxEventType type, Object payload);
+
+    /**
+     * Xử lý các event đến hạn cho tới khi hết
+     *
+     * @return số event đã xử lý
+     */
+    int drain();
+}
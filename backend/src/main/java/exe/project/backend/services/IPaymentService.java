@@ -1,10 +1,12 @@
 package exe.project.backend.services;
 
 import exe.project.backend.dtos.requests.PurchaseRequest;
+import exe.project.backend.dtos.responses.CursorPage;
 import exe.project.backend.dtos.responses.PaymentHistoryResponse;
 import exe.project.backend.dtos.responses.PurchaseResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import vn.payos.model.webhooks.WebhookData;
 
 /**
  * Service quản lý payment
@@ -21,8 +23,18 @@ public interface IPaymentService {
      */
     void handlePayOSCallback(Object webhookBody) throws Exception;
 
+    /**
+     * Xử lý webhook đã verify chữ ký (dùng cho worker của hàng đợi webhook), idempotent theo orderCode
+     */
+    void processPayOSWebhook(WebhookData webhookData);
+
     /**
      * Lấy lịch sử thanh toán của user
      */
     Page<PaymentHistoryResponse> getPaymentHistory(Long userId, Pageable pageable);
+
+    /**
+     * Lịch sử thanh toán dạng keyset pagination (cursor), dùng cho lịch sử dài
+     */
+    CursorPage<PaymentHistoryResponse> getPaymentHistory(Long userId, String cursor, int size);
 }
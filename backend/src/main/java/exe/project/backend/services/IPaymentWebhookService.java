@@ -0,0 +1,12 @@
+package exe.project.backend.services;
+
+/**
+ * Nhận webhook PayOS: verify chữ ký rồi xử lý ngay, hoặc lưu vào hàng đợi và ACK ngay (payos.webhook.async-ingest)
+ */
+public interface IPaymentWebhookService {
+
+    /**
+     * Ném exception khi chữ ký không hợp lệ (hoặc khi xử lý đồng bộ lỗi)
+     */
+    void receive(Object webhookBody) throws Exception;
+}
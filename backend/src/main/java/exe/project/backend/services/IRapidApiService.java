@@ -9,5 +9,8 @@ import java.util.concurrent.CompletableFuture;
 public interface IRapidApiService {
     CompletableFuture<ApiWrapperResponse> sendGetRequestWrapper(String endpoint, Map<String, String> params);
     JsonNode sendGetDataNode(String endpoint, Map<String, String> params);
+    CompletableFuture<JsonNode> sendGetDataNodeAsync(String endpoint, Map<String, String> params);
+    CompletableFuture<byte[]> sendGetRequestRaw(String endpoint, Map<String, String> params);
+    <T> CompletableFuture<T> sendGetDataAsync(String endpoint, Map<String, String> params, Class<T> type);
     <T> T sendGetRequest(String endpoint, Map<String, String> params, Class<T> responseType);
 }
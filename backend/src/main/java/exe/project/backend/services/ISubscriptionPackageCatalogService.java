@@ -0,0 +1,29 @@
+package exe.project.backend.services;
+
+import exe.project.backend.dtos.local.SubscriptionPackageInfo;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Catalog các gói subscription giữ trong bộ nhớ, tra cứu theo id hoặc code không cần query DB
+ */
+public interface ISubscriptionPackageCatalogService {
+
+    /**
+     * Gói đang active theo code, dùng khi tạo purchase
+     */
+    Optional<SubscriptionPackageInfo> findActiveByCode(String code);
+
+    /**
+     * Gói theo id kể cả đã inactive, vì payment cũ vẫn trỏ tới
+     */
+    Optional<SubscriptionPackageInfo> findById(Long id);
+
+    Collection<SubscriptionPackageInfo> getAll();
+
+    /**
+     * Đọc lại bảng subscription_packages và thay catalog mới trong một lần gán
+     */
+    Collection<SubscriptionPackageInfo> reload();
+}
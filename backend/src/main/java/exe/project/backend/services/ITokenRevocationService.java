@@ -0,0 +1,10 @@
+package exe.project.backend.services;
+
+import java.time.LocalDateTime;
+
+public interface ITokenRevocationService {
+
+    boolean isRevoked(String token);
+
+    void revoke(String token, String tokenType, LocalDateTime expiresAt);
+}
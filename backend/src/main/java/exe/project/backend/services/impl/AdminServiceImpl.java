@@ -1,33 +1,49 @@
 package exe.project.backend.services.impl;
 
+import exe.project.backend.cache.SubscriptionStatusCache;
+import exe.project.backend.dtos.local.SubscriptionPackageInfo;
 import exe.project.backend.dtos.requests.PaymentFilterRequest;
 import exe.project.backend.dtos.requests.PaymentUpdateRequest;
 import exe.project.backend.dtos.requests.SubscriptionExtensionRequest;
 import exe.project.backend.dtos.requests.UserFilterRequest;
+import exe.project.backend.dtos.responses.CursorPage;
 import exe.project.backend.dtos.responses.DashboardStatsResponse;
 import exe.project.backend.dtos.responses.StatsResponse;
+import exe.project.backend.enums.PaymentStatus;
+import exe.project.backend.enums.StatsGranularity;
+import exe.project.backend.models.DailyStats;
 import exe.project.backend.models.Payment;
 import exe.project.backend.models.User;
 import exe.project.backend.models.UserSubscription;
+import exe.project.backend.repositories.DailyPackageRevenueRepository;
+import exe.project.backend.repositories.DailyStatsRepository;
 import exe.project.backend.repositories.IUserRepository;
 import exe.project.backend.repositories.PaymentRepository;
 import exe.project.backend.repositories.UserSubscriptionRepository;
 import exe.project.backend.services.IAdminService;
+import exe.project.backend.services.IDashboardRollupService;
 import exe.project.backend.services.IEmailService;
+import exe.project.backend.services.ISubscriptionPackageCatalogService;
+import exe.project.backend.utils.CursorUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -38,117 +54,108 @@ public class AdminServiceImpl implements IAdminService {
     private final UserSubscriptionRepository userSubscriptionRepository;
     private final PaymentRepository paymentRepository;
     private final IEmailService emailService;
+    private final DailyStatsRepository dailyStatsRepository;
+    private final DailyPackageRevenueRepository dailyPackageRevenueRepository;
+    private final IDashboardRollupService dashboardRollupService;
+    private final ISubscriptionPackageCatalogService packageCatalogService;
+    private final SubscriptionStatusCache subscriptionStatusCache;
+
+    // Thứ tự của mọi listing keyset, khớp index (create_at DESC, id DESC)
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "createAt", "id");
 
     @Override
     public DashboardStatsResponse getDashboardStats() {
-        long totalUsers = userRepository.count();
-        Long totalRevenue = paymentRepository.sumTotalRevenue();
-
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-        long newUsersToday = userRepository.countByCreateAtBetween(startOfDay, endOfDay);
+        // Đọc từ rollup theo ngày (vài trăm dòng) thay vì quét users/payments
+        long totalUsers = dailyStatsRepository.sumNewUsers();
+        long totalRevenue = dailyStatsRepository.sumRevenue();
+        long newUsersToday = dailyStatsRepository.findById(LocalDate.now())
+                .map(DailyStats::getNewUsers)
+                .orElse(0L);
 
         return DashboardStatsResponse.builder()
                 .totalUsers(totalUsers)
-                .totalRevenue(totalRevenue == null ? 0 : totalRevenue)
+                .totalRevenue(totalRevenue)
                 .newUsersToday(newUsersToday)
                 .build();
     }
 
     @Override
     public StatsResponse getUserRegistrationStats(String type, LocalDate startDate, LocalDate endDate) {
-        List<String> labels = new ArrayList<>();
-        List<Long> data = new ArrayList<>();
+        StatsRange range = StatsRange.of(StatsGranularity.from(type), startDate, endDate);
 
-        // Default to last 7 days if no range provided
-        if (startDate == null) {
-            startDate = LocalDate.now().minusDays(6);
-        }
-        if (endDate == null) {
-            endDate = LocalDate.now();
-        }
+        List<Object[]> rows = userRepository.countRegistrationsByBucket(
+                range.granularity().getTruncUnit(), range.start(), range.end());
 
-        if ("MONTH".equalsIgnoreCase(type)) {
-            LocalDate current = startDate.withDayOfMonth(1);
-            LocalDate end = endDate.withDayOfMonth(1);
+        return toBucketStats("New Users", range, rows);
+    }
 
-            while (!current.isAfter(end)) {
-                LocalDateTime startOfMonth = current.atStartOfDay();
-                LocalDateTime endOfMonth = current.withDayOfMonth(current.lengthOfMonth()).atTime(LocalTime.MAX);
+    @Override
+    public StatsResponse getRevenueStats(String type, LocalDate startDate, LocalDate endDate) {
+        StatsRange range = StatsRange.of(StatsGranularity.from(type), startDate, endDate);
 
-                long count = userRepository.countByCreateAtBetween(startOfMonth, endOfMonth);
-                labels.add(current.format(DateTimeFormatter.ofPattern("MM/yyyy")));
-                data.add(count);
+        List<Object[]> rows = paymentRepository.sumRevenueByBucket(
+                range.granularity().getTruncUnit(), range.start(), range.end());
 
-                current = current.plusMonths(1);
-            }
-        } else { // DAY
-            LocalDate current = startDate;
-            while (!current.isAfter(endDate)) {
-                LocalDateTime startOfDay = current.atStartOfDay();
-                LocalDateTime endOfDay = current.atTime(LocalTime.MAX);
+        return toBucketStats("Revenue", range, rows);
+    }
 
-                long count = userRepository.countByCreateAtBetween(startOfDay, endOfDay);
-                labels.add(current.format(DateTimeFormatter.ofPattern("dd/MM")));
-                data.add(count);
+    /**
+     * Ghép kết quả GROUP BY (chỉ có bucket có dữ liệu) thành chuỗi liên tục, bucket trống = 0
+     */
+    private StatsResponse toBucketStats(String label, StatsRange range, List<Object[]> rows) {
+        Map<LocalDate, Long> values = new HashMap<>();
+        for (Object[] row : rows) {
+            values.put(toLocalDate(row[0]), ((Number) row[1]).longValue());
+        }
 
-                current = current.plusDays(1);
-            }
+        List<String> labels = new ArrayList<>();
+        List<Long> data = new ArrayList<>();
+        StatsGranularity granularity = range.granularity();
+        for (LocalDate bucket = range.firstBucket(); !bucket.isAfter(range.lastBucket()); bucket = granularity.next(bucket)) {
+            labels.add(granularity.label(bucket));
+            data.add(values.getOrDefault(bucket, 0L));
         }
 
         return StatsResponse.builder()
-                .label("New Users")
+                .label(label)
                 .labels(labels)
                 .data(data)
                 .build();
     }
 
-    @Override
-    public StatsResponse getRevenueStats(String type, LocalDate startDate, LocalDate endDate) {
-        List<String> labels = new ArrayList<>();
-        List<Long> data = new ArrayList<>();
-
-        // Default to last 7 days if no range provided
-        if (startDate == null) {
-            startDate = LocalDate.now().minusDays(6);
+    private LocalDate toLocalDate(Object bucket) {
+        if (bucket instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
         }
-        if (endDate == null) {
-            endDate = LocalDate.now();
+        if (bucket instanceof LocalDateTime dateTime) {
+            return dateTime.toLocalDate();
         }
+        return ((OffsetDateTime) bucket).toLocalDate();
+    }
 
-        if ("MONTH".equalsIgnoreCase(type)) {
-            LocalDate current = startDate.withDayOfMonth(1);
-            LocalDate end = endDate.withDayOfMonth(1);
-
-            while (!current.isAfter(end)) {
-                LocalDateTime startOfMonth = current.atStartOfDay();
-                LocalDateTime endOfMonth = current.withDayOfMonth(current.lengthOfMonth()).atTime(LocalTime.MAX);
-
-                Long revenue = paymentRepository.sumRevenueBetween(startOfMonth, endOfMonth);
-                labels.add(current.format(DateTimeFormatter.ofPattern("MM/yyyy")));
-                data.add(revenue == null ? 0 : revenue);
+    /**
+     * Khoảng thống kê đã làm tròn theo bucket: [start, end) gồm trọn bucket đầu và bucket cuối
+     */
+    private record StatsRange(StatsGranularity granularity, LocalDate firstBucket, LocalDate lastBucket) {
 
-                current = current.plusMonths(1);
+        static StatsRange of(StatsGranularity granularity, LocalDate startDate, LocalDate endDate) {
+            // Default to last 7 days if no range provided
+            if (startDate == null) {
+                startDate = LocalDate.now().minusDays(6);
             }
-        } else { // DAY
-            LocalDate current = startDate;
-            while (!current.isAfter(endDate)) {
-                LocalDateTime startOfDay = current.atStartOfDay();
-                LocalDateTime endOfDay = current.atTime(LocalTime.MAX);
-
-                Long revenue = paymentRepository.sumRevenueBetween(startOfDay, endOfDay);
-                labels.add(current.format(DateTimeFormatter.ofPattern("dd/MM")));
-                data.add(revenue == null ? 0 : revenue);
-
-                current = current.plusDays(1);
+            if (endDate == null) {
+                endDate = LocalDate.now();
             }
+            return new StatsRange(granularity, granularity.truncate(startDate), granularity.truncate(endDate));
         }
 
-        return StatsResponse.builder()
-                .label("Revenue")
-                .labels(labels)
-                .data(data)
-                .build();
+        LocalDateTime start() {
+            return firstBucket.atStartOfDay();
+        }
+
+        LocalDateTime end() {
+            return granularity.next(lastBucket).atStartOfDay();
+        }
     }
 
     @Override
@@ -161,10 +168,7 @@ public class AdminServiceImpl implements IAdminService {
             endDate = LocalDate.now();
         }
 
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-
-        List<Object[]> results = paymentRepository.sumRevenueByPackageBetween(startDateTime, endDateTime);
+        List<Object[]> results = dailyPackageRevenueRepository.sumRevenueByPackageBetween(startDate, endDate);
 
         List<String> labels = new ArrayList<>();
         List<Long> data = new ArrayList<>();
@@ -185,11 +189,30 @@ public class AdminServiceImpl implements IAdminService {
 
     @Override
     public Page<User> getUsers(UserFilterRequest request, Pageable pageable) {
-        Specification<User> spec = (root, query, cb) -> {
+        return userRepository.findAll(userFilter(request), pageable);
+    }
+
+    @Override
+    public CursorPage<User> getUsers(UserFilterRequest request, String cursor, int size, boolean includeTotal) {
+        Specification<User> filter = userFilter(request);
+        List<User> rows = userRepository.findBy(filter.and(after(cursor)),
+                query -> query.sortBy(KEYSET_SORT).limit(size + 1).all());
+
+        CursorPage<User> page = CursorUtil.toPage(rows, size, User::getCreateAt, User::getId);
+        if (includeTotal) {
+            page.setTotalElements(userRepository.count(filter));
+        }
+        return page;
+    }
+
+    private Specification<User> userFilter(UserFilterRequest request) {
+        return (root, query, cb) -> {
             List<jakarta.persistence.criteria.Predicate> predicates = new ArrayList<>();
 
             if (request.getEmail() != null && !request.getEmail().isEmpty()) {
-                predicates.add(cb.like(root.get("email"), "%" + request.getEmail() + "%"));
+                // Tìm theo tiền tố trên lower(email), dùng được index idx_users_email_lower_pattern (data.sql)
+                predicates.add(cb.like(cb.lower(root.get("email")),
+                        escapeLike(request.getEmail().trim().toLowerCase()) + "%", '\\'));
             }
 
             if (request.getRole() != null) {
@@ -227,8 +250,6 @@ public class AdminServiceImpl implements IAdminService {
 
             return cb.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
         };
-
-        return userRepository.findAll(spec, pageable);
     }
 
     @Override
@@ -257,6 +278,7 @@ public class AdminServiceImpl implements IAdminService {
 
         sub.setExpiredAt(expiry);
         userSubscriptionRepository.save(sub);
+        subscriptionStatusCache.invalidate(request.getUserId());
 
         // Gửi email thông báo gia hạn
         try {
@@ -283,7 +305,24 @@ public class AdminServiceImpl implements IAdminService {
 
     @Override
     public Page<Payment> getPayments(PaymentFilterRequest request, Pageable pageable) {
-        Specification<Payment> spec = (root, query, cb) -> {
+        return paymentRepository.findAll(paymentFilter(request), pageable);
+    }
+
+    @Override
+    public CursorPage<Payment> getPayments(PaymentFilterRequest request, String cursor, int size, boolean includeTotal) {
+        Specification<Payment> filter = paymentFilter(request);
+        List<Payment> rows = paymentRepository.findBy(filter.and(after(cursor)),
+                query -> query.sortBy(KEYSET_SORT).limit(size + 1).all());
+
+        CursorPage<Payment> page = CursorUtil.toPage(rows, size, Payment::getCreateAt, Payment::getId);
+        if (includeTotal) {
+            page.setTotalElements(paymentRepository.count(filter));
+        }
+        return page;
+    }
+
+    private Specification<Payment> paymentFilter(PaymentFilterRequest request) {
+        return (root, query, cb) -> {
             List<jakarta.persistence.criteria.Predicate> predicates = new ArrayList<>();
 
             if (request.getStatus() != null) {
@@ -304,8 +343,24 @@ public class AdminServiceImpl implements IAdminService {
 
             return cb.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
         };
+    }
+
+    /**
+     * Điều kiện seek (createAt, id) < cursor theo thứ tự KEYSET_SORT; cursor rỗng = trang đầu
+     */
+    private <T> Specification<T> after(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return (root, query, cb) -> cb.conjunction();
+        }
+        CursorUtil.Position position = CursorUtil.decode(cursor);
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createAt"), position.createAt()),
+                cb.and(cb.equal(root.get("createAt"), position.createAt()),
+                        cb.lessThan(root.get("id"), position.id())));
+    }
 
-        return paymentRepository.findAll(spec, pageable);
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     @Override
@@ -314,6 +369,11 @@ public class AdminServiceImpl implements IAdminService {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
 
+        // Rollup lấy giá trị tại thời điểm gọi: trừ giá trị cũ trước khi sửa, cộng giá trị mới sau khi lưu
+        if (payment.getStatus() == PaymentStatus.SUCCESS) {
+            dashboardRollupService.recordPaymentReverted(payment);
+        }
+
         if (request.getStatus() != null) {
             payment.setStatus(request.getStatus());
         }
@@ -322,6 +382,18 @@ public class AdminServiceImpl implements IAdminService {
             payment.setAmount(request.getAmount());
         }
 
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+
+        if (saved.getStatus() == PaymentStatus.SUCCESS) {
+            dashboardRollupService.recordPaymentSuccess(saved);
+        }
+
+        return saved;
+    }
+
+    @Override
+    public Collection<SubscriptionPackageInfo> reloadPackageCatalog() {
+        log.info("Admin reloading subscription package catalog");
+        return packageCatalogService.reload();
     }
 }
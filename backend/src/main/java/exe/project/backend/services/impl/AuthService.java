@@ -1,5 +1,7 @@
 package exe.project.backend.services.impl;
 
+import exe.project.backend.cache.OtpRateLimiter;
+import exe.project.backend.cache.SubscriptionStatusCache;
 import exe.project.backend.config.OtpConfig;
 import exe.project.backend.dtos.requests.*;
 import exe.project.backend.dtos.responses.*;
@@ -9,22 +11,24 @@ import exe.project.backend.enums.Role;
 import exe.project.backend.exceptions.ServiceException;
 import exe.project.backend.mappers.UserMapper;
 import exe.project.backend.models.OtpVerification;
-import exe.project.backend.models.TokenBlacklist;
 import exe.project.backend.models.User;
 import exe.project.backend.models.UserProvider;
 import exe.project.backend.models.UserSubscription;
 import exe.project.backend.repositories.IUserProviderRepository;
 import exe.project.backend.repositories.IUserRepository;
 import exe.project.backend.repositories.OtpVerificationRepository;
-import exe.project.backend.repositories.TokenBlacklistRepository;
 import exe.project.backend.repositories.UserSubscriptionRepository;
 import exe.project.backend.services.IAuthService;
+import exe.project.backend.services.IDashboardRollupService;
 import exe.project.backend.services.IEmailService;
 import exe.project.backend.services.IJwtService;
 import exe.project.backend.services.IRefreshTokenService;
+import exe.project.backend.services.ITokenRevocationService;
 import exe.project.backend.services.oauth2.OAuth2Service;
 import exe.project.backend.services.oauth2.OAuth2ServiceFactory;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -32,6 +36,7 @@ import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AuthService implements IAuthService {
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
@@ -43,13 +48,16 @@ public class AuthService implements IAuthService {
     private final OAuth2ServiceFactory oauth2ServiceFactory;
     private final IUserProviderRepository userProviderRepository;
     private final OtpVerificationRepository otpVerificationRepository;
-    private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final ITokenRevocationService tokenRevocationService;
+    private final IDashboardRollupService dashboardRollupService;
     private final UserSubscriptionRepository subscriptionRepository;
+    private final SubscriptionStatusCache subscriptionStatusCache;
+    private final OtpRateLimiter otpRateLimiter;
 
     @Override
     public RefreshTokenResponse refreshToken(RefreshTokenRequest request) {
 
-        if (tokenBlacklistRepository.existsByToken(request.getRefreshToken())) {
+        if (tokenRevocationService.isRevoked(request.getRefreshToken())) {
             throw new ServiceException(ErrorCode.INVALID_REFRESH_TOKEN);
         }
 
@@ -76,7 +84,7 @@ public class AuthService implements IAuthService {
     @Override
     public boolean verifyToken(String token) {
         try {
-            if (tokenBlacklistRepository.existsByToken(token)) {
+            if (tokenRevocationService.isRevoked(token)) {
                 return false;
             }
 
@@ -108,14 +116,10 @@ public class AuthService implements IAuthService {
         if (remainingMs <= 0)
             return;
 
-        TokenBlacklist blacklist = TokenBlacklist.builder()
-                .token(token)
-                .tokenType(type)
-                .expiresAt(
-                        LocalDateTime.now().plusNanos(remainingMs * 1_000_000))
-                .build();
-
-        tokenBlacklistRepository.save(blacklist);
+        tokenRevocationService.revoke(
+                token,
+                type,
+                LocalDateTime.now().plusNanos(remainingMs * 1_000_000));
     }
 
     @Override
@@ -140,7 +144,10 @@ public class AuthService implements IAuthService {
     }
 
     @Override
-    public void sendOtpLogin(String email) {
+    public void sendOtpLogin(String email, String clientIp) {
+        // 0. Chặn spam OTP trong bộ nhớ trước khi đụng DB/SMTP
+        otpRateLimiter.checkSend(email, clientIp);
+
         // 1. Kiểm tra user (giữ nguyên logic cũ)
         userRepository.findByEmail(email).ifPresent(user -> {
             if (user.isDeleteFlag()) {
@@ -162,83 +169,22 @@ public class AuthService implements IAuthService {
 
         otpVerificationRepository.save(otpEntity);
 
-        // 4. Gửi Email HTML chuyên nghiệp
+        // 4. Gửi Email HTML chuyên nghiệp (làn ưu tiên, render template ở mail worker)
         try {
             // Lấy tên người dùng từ email (hoặc truy vấn DB nếu muốn hiển thị tên thật)
             String name = email.split("@")[0];
 
-            // Tạo nội dung HTML
-            String htmlContent = buildOtpEmailTemplate(name, otp);
-
-            emailService.sendEmail(
-                    email,
-                    "🔐 Mã xác thực đăng nhập Vivuplan", // Subject có icon tạo sự chú ý
-                    htmlContent);
+            emailService.sendOtpEmail(email, name, otp);
         } catch (Exception e) {
-            // Log lỗi nếu cần thiết
-            // log.error("Error sending OTP email", e);
+            // Làn OTP đầy (mail.rejected) hoặc lỗi dựng email: user bấm gửi lại được
+            log.warn("Cannot queue OTP email to {}: {}", email, e.getMessage());
         }
     }
 
-    /**
-     * Tạo giao diện Email HTML chuyên nghiệp
-     */
-    private String buildOtpEmailTemplate(String name, String otp) {
-        return """
-                <!DOCTYPE html>
-                <html>
-                <head>
-                    <meta charset="UTF-8">
-                    <style>
-                        body { font-family: 'Helvetica Neue', Helvetica, Arial, sans-serif; background-color: #f4f6f8; margin: 0; padding: 0; }
-                        .container { max-width: 600px; margin: 40px auto; background-color: #ffffff; border-radius: 12px; box-shadow: 0 4px 20px rgba(0,0,0,0.05); overflow: hidden; }
-                        .header { background-color: #0056D2; padding: 30px; text-align: center; }
-                        .header h1 { color: #ffffff; margin: 0; font-size: 24px; font-weight: 700; letter-spacing: 1px; }
-                        .content { padding: 40px 30px; color: #333333; line-height: 1.6; }
-                        .greeting { font-size: 18px; font-weight: 600; margin-bottom: 20px; color: #1a1a1a; }
-                        .message { margin-bottom: 25px; color: #555555; }
-                        .otp-box { background-color: #f0f7ff; border: 2px dashed #0056D2; border-radius: 8px; padding: 15px; text-align: center; margin: 30px 0; }
-                        .otp-code { font-size: 36px; font-weight: 800; color: #0056D2; letter-spacing: 8px; font-family: 'Courier New', monospace; }
-                        .expiry { font-size: 13px; color: #888888; margin-top: 10px; text-align: center; }
-                        .footer { background-color: #f9fafb; padding: 20px; text-align: center; font-size: 12px; color: #999999; border-top: 1px solid #eeeeee; }
-                        .footer a { color: #0056D2; text-decoration: none; }
-                    </style>
-                </head>
-                <body>
-                    <div class="container">
-                        <div class="header">
-                            <h1>VIVUPLAN</h1>
-                        </div>
-                        <div class="content">
-                            <div class="greeting">Xin chào %s,</div>
-                            <div class="message">
-                                Chúng tôi nhận được yêu cầu đăng nhập vào tài khoản Vivuplan của bạn.
-                                Vui lòng sử dụng mã bên dưới để hoàn tất xác thực.
-                            </div>
-
-                            <div class="otp-box">
-                                <div class="otp-code">%s</div>
-                            </div>
-
-                            <div class="expiry">Mã này sẽ hết hạn sau <strong>5 phút</strong>.</div>
-
-                            <div class="message" style="margin-top: 25px; font-size: 14px; color: #cc0000;">
-                                ⚠️ Lưu ý: Tuyệt đối không chia sẻ mã này cho bất kỳ ai, kể cả nhân viên Vivuplan.
-                            </div>
-                        </div>
-                        <div class="footer">
-                            <p>&copy; 2026 Vivuplan. All rights reserved.</p>
-                            <p>Nếu bạn không yêu cầu mã này, vui lòng bỏ qua email này hoặc <a href="#">liên hệ hỗ trợ</a>.</p>
-                        </div>
-                    </div>
-                </body>
-                </html>
-                """
-                .formatted(name, otp);
-    }
-
     @Override
     public LoginResponse verifyOtpLogin(VerifyOtp request) {
+        // Giới hạn số lần thử theo email để không dò được mã 6 số
+        otpRateLimiter.checkVerify(request.getEmail());
 
         OtpVerification otp = otpVerificationRepository
                 .findTopByEmailAndPurposeAndUsedFalseOrderByCreatedAtDesc(
@@ -261,6 +207,7 @@ public class AuthService implements IAuthService {
                             .role(Role.USER) // role mặc định
                             .build();
                     newUser = userRepository.save(newUser);
+                    dashboardRollupService.recordNewUser(newUser);
                     LocalDateTime now = LocalDateTime.now();
                     UserSubscription subscription = UserSubscription.builder()
                             .userId(newUser.getId())
@@ -269,6 +216,7 @@ public class AuthService implements IAuthService {
                     subscription.setExpiredAt(now.plusDays(1));
 
                     subscriptionRepository.save(subscription);
+                    subscriptionStatusCache.invalidate(newUser.getId());
                     return newUser;
                 });
 
@@ -281,6 +229,19 @@ public class AuthService implements IAuthService {
         return response;
     }
 
+    /**
+     * Dọn OTP đã dùng hoặc hết hạn, bảng không phình mãi theo số lần gửi
+     */
+    @Scheduled(cron = "${otp.purge-cron:0 */15 * * * *}")
+    public void purgeOtps() {
+        try {
+            int deleted = otpVerificationRepository.deleteUsedOrExpired(LocalDateTime.now());
+            log.info("Purged {} used/expired OTPs", deleted);
+        } catch (Exception e) {
+            log.warn("Cannot purge OTPs: {}", e.getMessage());
+        }
+    }
+
     private User findOrRegisterUser(OnboardingUser onboardingUser) {
         return userRepository.findByEmail(onboardingUser.getEmail())
                 .orElseGet(() -> registerOauth2User(onboardingUser));
@@ -291,6 +252,7 @@ public class AuthService implements IAuthService {
                 .email(onboardingUser.getEmail())
                 .build();
         user = userRepository.save(user);
+        dashboardRollupService.recordNewUser(user);
 
         // Tặng 3 ngày subscription cho user mới
         LocalDateTime now = LocalDateTime.now();
@@ -300,6 +262,7 @@ public class AuthService implements IAuthService {
                 .build();
 
         subscriptionRepository.save(subscription);
+        subscriptionStatusCache.invalidate(user.getId());
 
         return user;
     }
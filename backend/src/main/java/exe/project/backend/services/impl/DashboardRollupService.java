@@ -0,0 +1,195 @@
+package exe.project.backend.services.impl;
+
+import exe.project.backend.models.DailyPackageRevenue;
+import exe.project.backend.models.DailyStats;
+import exe.project.backend.models.Payment;
+import exe.project.backend.models.User;
+import exe.project.backend.repositories.DailyPackageRevenueRepository;
+import exe.project.backend.repositories.DailyStatsRepository;
+import exe.project.backend.repositories.IUserRepository;
+import exe.project.backend.repositories.PaymentRepository;
+import exe.project.backend.services.IDashboardRollupService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Giữ bảng rollup daily_stats / daily_package_revenue cho dashboard admin.
+ * Cộng dồn ngay sau khi transaction nghiệp vụ commit (upsert nguyên tử, transaction riêng nên không kéo dài
+ * lock của webhook); lỗi cộng dồn chỉ log, vì job đối soát mỗi đêm dựng lại rollup từ users/payments.
+ */
+@Slf4j
+@Service
+public class DashboardRollupService implements IDashboardRollupService {
+
+    private final DailyStatsRepository dailyStatsRepository;
+    private final DailyPackageRevenueRepository dailyPackageRevenueRepository;
+    private final IUserRepository userRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate requiresNew;
+    private final TransactionTemplate reconcileTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public DashboardRollupService(
+            DailyStatsRepository dailyStatsRepository,
+            DailyPackageRevenueRepository dailyPackageRevenueRepository,
+            IUserRepository userRepository,
+            PaymentRepository paymentRepository,
+            PlatformTransactionManager transactionManager) {
+        this.dailyStatsRepository = dailyStatsRepository;
+        this.dailyPackageRevenueRepository = dailyPackageRevenueRepository;
+        this.userRepository = userRepository;
+        this.paymentRepository = paymentRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconcileTransaction = new TransactionTemplate(transactionManager);
+        this.reconcileTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconcileTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Override
+    public void recordNewUser(User user) {
+        LocalDate day = dayOf(user.getCreateAt());
+        afterCommit(() -> dailyStatsRepository.increment(day, 1, 0, 0));
+    }
+
+    @Override
+    public void recordPaymentSuccess(Payment payment) {
+        applyPayment(payment, 1);
+    }
+
+    /**
+     * Payment SUCCESS bị admin đổi trạng thái/số tiền: trừ giá trị cũ ra khỏi rollup
+     */
+    @Override
+    public void recordPaymentReverted(Payment payment) {
+        applyPayment(payment, -1);
+    }
+
+    private void applyPayment(Payment payment, int sign) {
+        LocalDate day = dayOf(payment.getCreateAt());
+        long revenue = sign * payment.getAmount();
+        Long packageId = payment.getPackageId();
+
+        afterCommit(() -> {
+            dailyStatsRepository.increment(day, 0, revenue, sign);
+            dailyPackageRevenueRepository.increment(day, packageId, revenue, sign);
+        });
+    }
+
+    /**
+     * Lần đầu chạy (bảng rollup trống) thì dựng ngay từ dữ liệu hiện có
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (dailyStatsRepository.count() == 0) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Dựng lại toàn bộ rollup từ users/payments trong một transaction (2 query GROUP BY),
+     * sửa mọi sai lệch do cộng dồn lỗi, update tay hoặc xoá dữ liệu.
+     * Khoá bảng rollup (EXCLUSIVE: vẫn đọc được, cộng dồn phải chờ) trước khi đọc, rồi đọc users/payments
+     * trên một snapshot REPEATABLE READ: cộng dồn đến sau snapshot được áp lên kết quả mới thay vì bị delete-all xoá mất.
+     */
+    @Override
+    @Scheduled(cron = "${rollup.reconcile-cron:0 30 2 * * *}")
+    public void reconcile() {
+        try {
+            reconcileTransaction.executeWithoutResult(status -> rebuild());
+        } catch (Exception e) {
+            log.error("Dashboard rollup reconciliation failed", e);
+        }
+    }
+
+    private void rebuild() {
+        // Phải chạy trước query đầu tiên: snapshot REPEATABLE READ được lấy ở câu SELECT sau khi đã giữ khoá
+        entityManager.createNativeQuery("LOCK TABLE daily_stats, daily_package_revenue IN EXCLUSIVE MODE")
+                .executeUpdate();
+
+        Map<LocalDate, DailyStats> days = new TreeMap<>();
+
+        for (Object[] row : userRepository.countRegistrationsByDay()) {
+            LocalDate day = toLocalDate(row[0]);
+            days.computeIfAbsent(day, this::emptyDay).setNewUsers(((Number) row[1]).longValue());
+        }
+
+        dailyPackageRevenueRepository.deleteAllRows();
+        for (Object[] row : paymentRepository.sumSuccessfulRevenueByDayAndPackage()) {
+            LocalDate day = toLocalDate(row[0]);
+            long revenue = ((Number) row[2]).longValue();
+            long payments = ((Number) row[3]).longValue();
+
+            DailyStats stats = days.computeIfAbsent(day, this::emptyDay);
+            stats.setRevenue(stats.getRevenue() + revenue);
+            stats.setSuccessfulPayments(stats.getSuccessfulPayments() + payments);
+
+            entityManager.persist(DailyPackageRevenue.builder()
+                    .statDate(day)
+                    .packageId(((Number) row[1]).longValue())
+                    .revenue(revenue)
+                    .successfulPayments(payments)
+                    .build());
+        }
+
+        dailyStatsRepository.deleteAllRows();
+        days.values().forEach(entityManager::persist);
+
+        log.info("Dashboard rollup reconciled: {} days", days.size());
+    }
+
+    private DailyStats emptyDay(LocalDate day) {
+        return DailyStats.builder().statDate(day).build();
+    }
+
+    // Đợi transaction hiện tại commit, rồi cộng dồn trong transaction mới
+    private void afterCommit(Runnable increment) {
+        Runnable safeIncrement = () -> {
+            try {
+                requiresNew.executeWithoutResult(status -> increment.run());
+            } catch (Exception e) {
+                log.warn("Cannot update dashboard rollup, nightly reconciliation will fix it: {}", e.getMessage());
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    safeIncrement.run();
+                }
+            });
+        } else {
+            safeIncrement.run();
+        }
+    }
+
+    private LocalDate dayOf(LocalDateTime time) {
+        return time != null ? time.toLocalDate() : LocalDate.now();
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+}
@@ -0,0 +1,196 @@
+package exe.project.backend.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exe.project.backend.dtos.local.flight.FlightDestinationInfor;
+import exe.project.backend.dtos.local.hotel.HotelDestinationInfo;
+import exe.project.backend.enums.DestinationKind;
+import exe.project.backend.models.DestinationIndexEntry;
+import exe.project.backend.repositories.DestinationIndexRepository;
+import exe.project.backend.services.IDestinationIndexService;
+import exe.project.backend.utils.TextNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Index destination trong bộ nhớ (ConcurrentSkipListMap theo tên đã chuẩn hoá) + bảng destination_index để giữ qua restart.
+ * Đọc hoàn toàn in-process, ghi DB chạy trên taskExecutor nên không chặn luồng search.
+ */
+@Slf4j
+@Service
+public class DestinationIndexService implements IDestinationIndexService {
+
+    // Giới hạn số key duyệt khi match theo prefix, quá số này coi như nhập nhằng
+    private static final int MAX_PREFIX_CANDIDATES = 16;
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final DestinationIndexRepository destinationIndexRepository;
+    private final ObjectMapper objectMapper;
+    private final Executor taskExecutor;
+    private final int minPrefixLength;
+
+    private final Map<DestinationKind, ConcurrentSkipListMap<String, Object>> entries = new EnumMap<>(DestinationKind.class);
+    private final Map<DestinationKind, Counter> hitCounters = new EnumMap<>(DestinationKind.class);
+    private final Map<DestinationKind, Counter> missCounters = new EnumMap<>(DestinationKind.class);
+
+    public DestinationIndexService(
+            DestinationIndexRepository destinationIndexRepository,
+            ObjectMapper objectMapper,
+            @Qualifier("taskExecutor") Executor taskExecutor,
+            @Value("${destination-index.min-prefix-length:4}") int minPrefixLength,
+            MeterRegistry meterRegistry) {
+        this.destinationIndexRepository = destinationIndexRepository;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+        this.minPrefixLength = minPrefixLength;
+
+        for (DestinationKind kind : DestinationKind.values()) {
+            entries.put(kind, new ConcurrentSkipListMap<>());
+            hitCounters.put(kind, meterRegistry.counter("destination.index.lookups", "kind", kind.name(), "result", "hit"));
+            missCounters.put(kind, meterRegistry.counter("destination.index.lookups", "kind", kind.name(), "result", "miss"));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int loaded = 0;
+        for (DestinationIndexEntry entry : destinationIndexRepository.findAll()) {
+            try {
+                Object destination = objectMapper.readValue(entry.getPayload(), payloadType(entry.getKind()));
+                entries.get(entry.getKind()).put(entry.getLookupKey(), destination);
+                loaded++;
+            } catch (Exception e) {
+                log.warn("Skip invalid destination index entry id={}: {}", entry.getId(), e.getMessage());
+            }
+        }
+        log.info("Destination index loaded {} entries", loaded);
+    }
+
+    @Override
+    public HotelDestinationInfo findHotelDestination(String query) {
+        return find(DestinationKind.HOTEL, query, HotelDestinationInfo.class, HotelDestinationInfo::getDestinationId);
+    }
+
+    @Override
+    public FlightDestinationInfor findFlightDestination(String query) {
+        return find(DestinationKind.FLIGHT, query, FlightDestinationInfor.class, FlightDestinationInfor::getDestinationId);
+    }
+
+    @Override
+    public void indexHotelDestination(String query, HotelDestinationInfo destination) {
+        if (destination == null || destination.getDestinationId() == null || destination.getDestinationId().isBlank()) {
+            return;
+        }
+        // name = city_name của mọi loại kết quả (landmark, hotel, district...), chỉ city mới được dùng làm key
+        String cityName = isCity(destination) ? destination.getName() : null;
+        index(DestinationKind.HOTEL, destination, query, cityName);
+    }
+
+    @Override
+    public void indexFlightDestination(String query, FlightDestinationInfor destination) {
+        if (destination == null || destination.getDestinationId() == null || destination.getDestinationId().isBlank()) {
+            return;
+        }
+        // "SGN.AIRPORT" -> tra được bằng mã IATA "sgn"
+        String code = destination.getDestinationId().split("\\.")[0];
+        index(DestinationKind.FLIGHT, destination, query, destination.getName(), code);
+    }
+
+    private <T> T find(DestinationKind kind, String query, Class<T> type, Function<T, String> idOf) {
+        String key = TextNormalizer.normalize(query);
+        if (key.isEmpty()) {
+            return null;
+        }
+
+        ConcurrentSkipListMap<String, Object> kindEntries = entries.get(kind);
+        Object exact = kindEntries.get(key);
+        if (exact != null) {
+            hitCounters.get(kind).increment();
+            return type.cast(exact);
+        }
+
+        // Prefix: chỉ nhận khi mọi key bắt đầu bằng query đều trỏ về cùng một destination
+        if (key.length() >= minPrefixLength) {
+            T candidate = null;
+            int scanned = 0;
+            for (Object value : kindEntries.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+                T destination = type.cast(value);
+                if (++scanned > MAX_PREFIX_CANDIDATES
+                        || (candidate != null && !Objects.equals(idOf.apply(candidate), idOf.apply(destination)))) {
+                    candidate = null;
+                    break;
+                }
+                candidate = destination;
+            }
+            if (candidate != null) {
+                hitCounters.get(kind).increment();
+                return candidate;
+            }
+        }
+
+        missCounters.get(kind).increment();
+        return null;
+    }
+
+    private void index(DestinationKind kind, Object destination, String... names) {
+        ConcurrentSkipListMap<String, Object> kindEntries = entries.get(kind);
+        for (String name : names) {
+            String key = TextNormalizer.normalize(name);
+            if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+                continue;
+            }
+            boolean[] changed = {false};
+            kindEntries.compute(key, (k, current) -> {
+                // Kết quả không phải city không được đè key đang trỏ về city
+                if (isCity(current) && !isCity(destination)) {
+                    return current;
+                }
+                changed[0] = !destination.equals(current);
+                return destination;
+            });
+            if (changed[0]) {
+                persistAsync(kind, key, destination);
+            }
+        }
+    }
+
+    private boolean isCity(Object destination) {
+        return destination instanceof HotelDestinationInfo hotel && "city".equalsIgnoreCase(hotel.getDest_type());
+    }
+
+    private void persistAsync(DestinationKind kind, String key, Object destination) {
+        taskExecutor.execute(() -> {
+            try {
+                DestinationIndexEntry entry = destinationIndexRepository.findByKindAndLookupKey(kind, key)
+                        .orElseGet(() -> DestinationIndexEntry.builder()
+                                .kind(kind)
+                                .lookupKey(key)
+                                .build());
+                entry.setPayload(objectMapper.writeValueAsString(destination));
+                destinationIndexRepository.save(entry);
+            } catch (DataIntegrityViolationException e) {
+                // Node khác vừa ghi cùng key, bản trong bộ nhớ đã đúng
+                log.debug("Destination index key already persisted: {} {}", kind, key);
+            } catch (Exception e) {
+                log.warn("Cannot persist destination index {} {}: {}", kind, key, e.getMessage());
+            }
+        });
+    }
+
+    private Class<?> payloadType(DestinationKind kind) {
+        return kind == DestinationKind.HOTEL ? HotelDestinationInfo.class : FlightDestinationInfor.class;
+    }
+}
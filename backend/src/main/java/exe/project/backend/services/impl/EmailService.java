@@ -1,49 +1,63 @@
 package exe.project.backend.services.impl;
 
 import exe.project.backend.services.IEmailService;
+import exe.project.backend.enums.MailPriority;
+import exe.project.backend.mail.MailDispatcher;
 import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.text.NumberFormat;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
+/**
+ * Dựng email và đẩy vào MailDispatcher; template chỉ được render ở mail worker, không phải ở thread gọi
+ */
 @Service
 @RequiredArgsConstructor
 public class EmailService implements IEmailService {
-    private final JavaMailSender mailSender;
+    private final MailDispatcher mailDispatcher;
 
-    @Async("taskExecutor")
-    public void sendEmail(String to, String subject, String content) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    @Value("${mail-dispatch.delivery-timeout-ms:60000}")
+    private long deliveryTimeoutMs;
 
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(content, true);
+    @Override
+    public void sendEmail(String to, String subject, String content) throws MessagingException {
+        enqueue(MailPriority.NORMAL, to, subject, () -> content);
+    }
 
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            throw new RuntimeException("Lỗi gửi email: ", e);
-        }
+    @Override
+    public void sendOtpEmail(String toEmail, String userName, String otp) throws MessagingException {
+        enqueue(MailPriority.HIGH, toEmail,
+                "🔐 Mã xác thực đăng nhập Vivuplan", // Subject có icon tạo sự chú ý
+                () -> buildOtpEmailTemplate(userName, otp));
     }
 
     @Override
-    @Async("taskExecutor")
     public void sendSubscriptionConfirmationEmail(
             String toEmail,
             String userName,
             String packageName,
             Long amount,
             LocalDateTime expiredAt) throws MessagingException {
+        // Gọi từ outbox: chỉ trả về khi đã gửi xong, lỗi thì event được retry
+        awaitDelivery(toEmail, enqueue(MailPriority.NORMAL, toEmail, "🎉 Đăng ký gói " + packageName + " thành công!",
+                () -> buildSubscriptionConfirmationTemplate(userName, packageName, amount, expiredAt)));
+    }
 
+    private String buildSubscriptionConfirmationTemplate(
+            String userName,
+            String packageName,
+            Long amount,
+            LocalDateTime expiredAt) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
         String formattedExpiry = expiredAt.format(formatter);
 
@@ -51,9 +65,7 @@ public class EmailService implements IEmailService {
         NumberFormat numberFormat = NumberFormat.getInstance(new Locale("vi", "VN"));
         String formattedAmount = numberFormat.format(amount);
 
-        String subject = "🎉 Đăng ký gói " + packageName + " thành công!";
-
-        String htmlContent = """
+        return """
                 <!DOCTYPE html>
                 <html>
                 <head>
@@ -113,23 +125,22 @@ public class EmailService implements IEmailService {
                 </html>
                 """
                 .formatted(userName, packageName, formattedAmount, formattedExpiry, packageName);
-
-        sendEmail(toEmail, subject, htmlContent);
     }
 
     @Override
-    @Async("taskExecutor")
     public void sendSubscriptionExtensionEmail(
             String toEmail,
             String userName,
             LocalDateTime newExpiredAt) throws MessagingException {
+        enqueue(MailPriority.NORMAL, toEmail, "🔔 Subscription của bạn đã được gia hạn",
+                () -> buildSubscriptionExtensionTemplate(userName, newExpiredAt));
+    }
 
+    private String buildSubscriptionExtensionTemplate(String userName, LocalDateTime newExpiredAt) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
         String formattedExpiry = newExpiredAt.format(formatter);
 
-        String subject = "🔔 Subscription của bạn đã được gia hạn";
-
-        String htmlContent = """
+        return """
                 <!DOCTYPE html>
                 <html>
                 <head>
@@ -175,7 +186,90 @@ public class EmailService implements IEmailService {
                 </html>
                 """
                 .formatted(userName, formattedExpiry);
+    }
 
-        sendEmail(toEmail, subject, htmlContent);
+    /**
+     * Tạo giao diện Email HTML chuyên nghiệp
+     */
+    private String buildOtpEmailTemplate(String name, String otp) {
+        return """
+                <!DOCTYPE html>
+                <html>
+                <head>
+                    <meta charset="UTF-8">
+                    <style>
+                        body { font-family: 'Helvetica Neue', Helvetica, Arial, sans-serif; background-color: #f4f6f8; margin: 0; padding: 0; }
+                        .container { max-width: 600px; margin: 40px auto; background-color: #ffffff; border-radius: 12px; box-shadow: 0 4px 20px rgba(0,0,0,0.05); overflow: hidden; }
+                        .header { background-color: #0056D2; padding: 30px; text-align: center; }
+                        .header h1 { color: #ffffff; margin: 0; font-size: 24px; font-weight: 700; letter-spacing: 1px; }
+                        .content { padding: 40px 30px; color: #333333; line-height: 1.6; }
+                        .greeting { font-size: 18px; font-weight: 600; margin-bottom: 20px; color: #1a1a1a; }
+                        .message { margin-bottom: 25px; color: #555555; }
+                        .otp-box { background-color: #f0f7ff; border: 2px dashed #0056D2; border-radius: 8px; padding: 15px; text-align: center; margin: 30px 0; }
+                        .otp-code { font-size: 36px; font-weight: 800; color: #0056D2; letter-spacing: 8px; font-family: 'Courier New', monospace; }
+                        .expiry { font-size: 13px; color: #888888; margin-top: 10px; text-align: center; }
+                        .footer { background-color: #f9fafb; padding: 20px; text-align: center; font-size: 12px; color: #999999; border-top: 1px solid #eeeeee; }
+                        .footer a { color: #0056D2; text-decoration: none; }
+                    </style>
+                </head>
+                <body>
+                    <div class="container">
+                        <div class="header">
+                            <h1>VIVUPLAN</h1>
+                        </div>
+                        <div class="content">
+                            <div class="greeting">Xin chào %s,</div>
+                            <div class="message">
+                                Chúng tôi nhận được yêu cầu đăng nhập vào tài khoản Vivuplan của bạn.
+                                Vui lòng sử dụng mã bên dưới để hoàn tất xác thực.
+                            </div>
+
+                            <div class="otp-box">
+                                <div class="otp-code">%s</div>
+                            </div>
+
+                            <div class="expiry">Mã này sẽ hết hạn sau <strong>5 phút</strong>.</div>
+
+                            <div class="message" style="margin-top: 25px; font-size: 14px; color: #cc0000;">
+                                ⚠️ Lưu ý: Tuyệt đối không chia sẻ mã này cho bất kỳ ai, kể cả nhân viên Vivuplan.
+                            </div>
+                        </div>
+                        <div class="footer">
+                            <p>&copy; 2026 Vivuplan. All rights reserved.</p>
+                            <p>Nếu bạn không yêu cầu mã này, vui lòng bỏ qua email này hoặc <a href="#">liên hệ hỗ trợ</a>.</p>
+                        </div>
+                    </div>
+                </body>
+                </html>
+                """
+                .formatted(name, otp);
+    }
+
+    // Hàng đợi đầy thì báo lỗi cho caller (outbox sẽ retry, OTP thì người dùng gửi lại)
+    // Làn đầy thì future đã lỗi sẵn: ném ngay để caller (outbox) retry
+    private CompletableFuture<Void> enqueue(MailPriority priority, String to, String subject, Supplier<String> body)
+            throws MessagingException {
+        CompletableFuture<Void> delivery = mailDispatcher.submit(priority, to, subject, body);
+        if (delivery.isCompletedExceptionally() && delivery.exceptionNow() instanceof MessagingException rejected) {
+            throw rejected;
+        }
+        return delivery;
+    }
+
+    private void awaitDelivery(String to, CompletableFuture<Void> delivery) throws MessagingException {
+        try {
+            delivery.get(deliveryTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new MessagingException("Failed to send email to " + to,
+                    e.getCause() instanceof Exception cause ? cause : e);
+        } catch (TimeoutException e) {
+            // Huỷ để worker bỏ qua job nếu chưa tới lượt, tránh gửi trùng khi outbox retry
+            delivery.cancel(false);
+            throw new MessagingException("Timed out waiting to send email to " + to);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            delivery.cancel(false);
+            throw new MessagingException("Interrupted while sending email to " + to);
+        }
     }
 }
@@ -1,228 +1,148 @@
 package exe.project.backend.services.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import exe.project.backend.dtos.local.flight.FlightDestinationInfor;
-import exe.project.backend.dtos.local.hotel.HotelDestinationInfo;
 import exe.project.backend.dtos.responses.FlightSearchResponse;
-import exe.project.backend.dtos.responses.HotelSearchResponse;
 import exe.project.backend.enums.RapidApiEndPoint;
+import exe.project.backend.services.IDestinationIndexService;
 import exe.project.backend.services.IFlightService;
+import exe.project.backend.services.IRapidApiService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FlightService implements IFlightService {
-    private final RapidApiService rapidApiService;
+    private final IRapidApiService rapidApiService;
     private final ObjectMapper objectMapper;
+    private final IDestinationIndexService destinationIndexService;
 
 
     @Override
     public CompletableFuture<FlightDestinationInfor> getFlightDestination(String query, String languagecode) {
         String endpoint = RapidApiEndPoint.SEARCH_FLIGHT_DESTINATION.getPath();
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Gọi RapidApiService, nhận về JsonNode (data array)
-                JsonNode response = rapidApiService.sendGetDataNode(endpoint, Map.of("query", query));
-
-                if (response != null && response.isArray() && !response.isEmpty()) {
-                    // duyệt toàn bộ array để tìm phần tử có type = CITY
-                    for (JsonNode dest : response) {
-                        JsonNode typeNode = dest.get("type");
-                        if (typeNode != null && "AIRPORT".equalsIgnoreCase(typeNode.asText())) {
-                            return objectMapper.treeToValue(dest, FlightDestinationInfor.class);
+        // Tra index local trước, miss mới gọi RapidAPI
+        FlightDestinationInfor indexed = destinationIndexService.findFlightDestination(query);
+        if (indexed != null) {
+            return CompletableFuture.completedFuture(indexed);
+        }
+
+        // Gọi RapidApiService, nhận về JsonNode (data array)
+        return rapidApiService.sendGetDataNodeAsync(endpoint, Map.of("query", query))
+                .thenApply(response -> {
+                    if (response != null && response.isArray() && !response.isEmpty()) {
+                        // duyệt toàn bộ array để tìm phần tử có type = AIRPORT
+                        for (JsonNode dest : response) {
+                            JsonNode typeNode = dest.get("type");
+                            if (typeNode != null && "AIRPORT".equalsIgnoreCase(typeNode.asText())) {
+                                FlightDestinationInfor destination = treeToValue(dest, FlightDestinationInfor.class);
+                                destinationIndexService.indexFlightDestination(query, destination);
+                                return destination;
+                            }
                         }
                     }
-                }
-                return null;
-            } catch (Exception e) {
-                log.error("❌ Error fetching flight destination: {}", e.getMessage(), e);
-                return null;
-            }
-        });
+                    return null;
+                })
+                .exceptionally(ex -> {
+                    log.error("❌ Error fetching flight destination: {}", ex.getMessage(), ex);
+                    return null;
+                });
     }
 
     @Override
     public CompletableFuture<List<FlightDestinationInfor>> getListFlightDestination(String query, String languagecode) {
         String endpoint = RapidApiEndPoint.SEARCH_FLIGHT_DESTINATION.getPath();
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                JsonNode response = rapidApiService.sendGetDataNode(endpoint, Map.of("query", query));
-
-                List<FlightDestinationInfor> results = new ArrayList<>();
+        return rapidApiService.sendGetDataNodeAsync(endpoint, Map.of("query", query))
+                .thenApply(response -> {
+                    List<FlightDestinationInfor> results = new ArrayList<>();
 
-                if (response != null && response.isArray() && !response.isEmpty()) {
-
-                    for (JsonNode dest : response) {
-                        FlightDestinationInfor info = objectMapper.treeToValue(dest, FlightDestinationInfor.class);
-                        results.add(info);
+                    if (response != null && response.isArray() && !response.isEmpty()) {
+                        for (JsonNode dest : response) {
+                            FlightDestinationInfor destination = treeToValue(dest, FlightDestinationInfor.class);
+                            if ("AIRPORT".equalsIgnoreCase(destination.getType())) {
+                                destinationIndexService.indexFlightDestination(null, destination);
+                            }
+                            results.add(destination);
+                        }
                     }
-                }
 
-                return results;
-
-            } catch (Exception e) {
-                log.error("❌ Error fetching flight destination: {}", e.getMessage(), e);
-                return Collections.emptyList();
-            }
-        });
+                    return results;
+                })
+                .exceptionally(ex -> {
+                    log.error("❌ Error fetching flight destination: {}", ex.getMessage(), ex);
+                    return Collections.emptyList();
+                });
     }
 
 
-//    @Override
-//    public CompletableFuture<FlightSearchResponse> searchFlight(Map<String, String> queries) {
-//        String endpoint = RapidApiEndPoint.SEARCH_FLIGHT.getPath();
-//
-//        CompletableFuture<FlightDestinationInfor> fromFuture =
-//                getFlightDestination(queries.get("from"), "vi")
-//                        .exceptionally(ex -> {
-//                            log.error("From destination failed", ex);
-//                            return null;
-//                        });
-//
-//        CompletableFuture<FlightDestinationInfor> toFuture =
-//                getFlightDestination(queries.get("to"), "vi")
-//                        .exceptionally(ex -> {
-//                            log.error("To destination failed", ex);
-//                            return null;
-//                        });
-//
-//        return CompletableFuture
-//                .allOf(fromFuture, toFuture)
-//                .thenCompose(v -> {
-//
-//                    FlightDestinationInfor from = fromFuture.join();
-//                    FlightDestinationInfor to = toFuture.join();
-//
-//                    queries.put("fromId", from.getDestinationId());
-//                    queries.put("toId", to.getDestinationId());
-//                    queries.remove("from");
-//                    queries.remove("to");
-//
-//                    return CompletableFuture.supplyAsync(() -> {
-//                        try {
-//                            JsonNode dataNode =
-//                                    rapidApiService.sendGetDataNode(endpoint, queries);
-//
-//                            if (dataNode != null) {
-//                                FlightSearchResponse response =
-//                                        objectMapper.treeToValue(
-//                                                dataNode,
-//                                                FlightSearchResponse.class
-//                                        );
-//
-//                                // 🔁 Lặp và gán custom link
-//                                if (response.getFlightOffers() != null) {
-//                                    for (FlightSearchResponse.FlightOffers offer : response.getFlightOffers()) {
-//
-//                                        if (offer.getSegments() == null || offer.getSegments().isEmpty()) {
-//                                            continue;
-//                                        }
-//
-//                                        String customLink = "https://flights.booking.com/flights/"
-//                                                + offer.getSegments().getFirst().getDepartureAirport().getCode() + ".AIRPORT-"
-//                                                + offer.getSegments().getFirst().getArrivalAirport().getCode() + ".AIRPORT/d7699_"
-//                                                + offer.getToken().substring(6)
-//                                                + "/?type=" + offer.getTripType()
-//                                                + "&adults=" + queries.get("adults") + "&children=";
-//                                        if(queries.get("childrenAge") != null) {
-//                                            customLink += queries.get("childrenAge");
-//                                        }
-//                                        offer.setLinkFFFlight(customLink);
-//                                    }
-//                                }
-//
-//                                return response;
-//                            }
-//                            return null;
-//                        } catch (Exception e) {
-//                            log.error("❌ Error fetching flights: {}", e.getMessage(), e);
-//                            return null;
-//                        }
-//                    });
-//                });
-//    }
-
-
     @Override
     public CompletableFuture<FlightSearchResponse> searchFlight(Map<String, String> queries) {
         String endpoint = RapidApiEndPoint.SEARCH_FLIGHT.getPath();
 
-        return getFlightDestination(queries.get("from"), "vi")
-                .thenCompose(from -> {
+        // ➜ Resolve FROM và TO song song, có cả 2 mới search flight
+        return resolveRoute(queries.get("from"), queries.get("to"))
+                .thenCompose(route -> {
+                    Map<String, String> flightQueries = new HashMap<>(queries);
+                    flightQueries.put("fromId", route.from().getDestinationId());
+                    flightQueries.put("toId", route.to().getDestinationId());
+                    flightQueries.remove("from");
+                    flightQueries.remove("to");
 
-                    if (from == null) {
-                        throw new RuntimeException("From destination not found");
-                    }
+                    return fetchFlights(endpoint, flightQueries);
+                });
+    }
 
-                    queries.put("fromId", from.getDestinationId());
-                    queries.remove("from");
+    /**
+     * Gọi 2 destination cùng lúc. Bên nào lỗi trước thì fail ngay với lỗi của bên đó
+     * và cancel bên còn lại (không chờ thêm một round-trip vô ích).
+     * Request upstream đã gửi vẫn chạy tiếp và được cache cho lần search sau.
+     */
+    private CompletableFuture<Route> resolveRoute(String fromQuery, String toQuery) {
+        CompletableFuture<FlightDestinationInfor> fromFuture =
+                requireDestination(fromQuery, "From destination not found");
+        CompletableFuture<FlightDestinationInfor> toFuture =
+                requireDestination(toQuery, "To destination not found");
+
+        CompletableFuture<Route> route = new CompletableFuture<>();
+        BiConsumer<FlightDestinationInfor, Throwable> onResolved = (ignored, ex) -> {
+            if (ex != null) {
+                if (route.completeExceptionally(ex)) {
+                    fromFuture.cancel(true);
+                    toFuture.cancel(true);
+                }
+            } else if (fromFuture.isDone() && toFuture.isDone()
+                    && !fromFuture.isCompletedExceptionally() && !toFuture.isCompletedExceptionally()) {
+                route.complete(new Route(fromFuture.join(), toFuture.join()));
+            }
+        };
+        fromFuture.whenComplete(onResolved);
+        toFuture.whenComplete(onResolved);
 
-                    // ➜ Sau khi có FROM mới gọi TO
-                    return getFlightDestination(queries.get("to"), "vi");
-                })
-                .thenCompose(to -> {
+        return route;
+    }
 
-                    if (to == null) {
-                        throw new RuntimeException("To destination not found");
+    private CompletableFuture<FlightDestinationInfor> requireDestination(String query, String notFoundMessage) {
+        return getFlightDestination(query, "vi")
+                .thenApply(destination -> {
+                    if (destination == null) {
+                        throw new RuntimeException(notFoundMessage);
                     }
-
-                    queries.put("toId", to.getDestinationId());
-                    queries.remove("to");
-
-                    // ➜ Sau khi có FROM + TO mới search flight
-                    return CompletableFuture.supplyAsync(() -> {
-                        try {
-                            JsonNode dataNode =
-                                    rapidApiService.sendGetDataNode(endpoint, queries);
-
-                            if (dataNode != null) {
-                                FlightSearchResponse response =
-                                        objectMapper.treeToValue(
-                                                dataNode,
-                                                FlightSearchResponse.class
-                                        );
-
-                                // 🔁 Gán custom link
-                                if (response.getFlightOffers() != null) {
-                                    for (FlightSearchResponse.FlightOffers offer : response.getFlightOffers()) {
-
-                                        if (offer.getSegments() == null || offer.getSegments().isEmpty()) {
-                                            continue;
-                                        }
-
-                                        String customLink =
-                                                "https://flights.booking.com/flights/"
-                                                        + offer.getSegments().getFirst().getDepartureAirport().getCode() + ".AIRPORT-"
-                                                        + offer.getSegments().getFirst().getArrivalAirport().getCode() + ".AIRPORT/d7699_"
-                                                        + offer.getToken().substring(6)
-                                                        + "/?type=" + offer.getTripType()
-                                                        + "&adults=" + queries.get("adults")
-                                                        + "&children=" + queries.getOrDefault("childrenAge", "");
-
-                                        offer.setLinkFFFlight(customLink);
-                                    }
-                                }
-
-                                return response;
-                            }
-                            return null;
-                        } catch (Exception e) {
-                            log.error("❌ Error fetching flights", e);
-                            return null;
-                        }
-                    });
+                    return destination;
                 });
     }
 
@@ -230,52 +150,57 @@ public class FlightService implements IFlightService {
     public CompletableFuture<FlightSearchResponse> searchFlight2(Map<String, String> queries) {
         String endpoint = RapidApiEndPoint.SEARCH_FLIGHT.getPath();
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-
-                JsonNode dataNode =
-                        rapidApiService.sendGetDataNode(endpoint, queries);
-
-                if (dataNode != null) {
-
-                    FlightSearchResponse response =
-                            objectMapper.treeToValue(
-                                    dataNode,
-                                    FlightSearchResponse.class
-                            );
-
-                    // 🔁 Gán custom link
-                    if (response.getFlightOffers() != null) {
-
-                        for (FlightSearchResponse.FlightOffers offer : response.getFlightOffers()) {
-
-                            if (offer.getSegments() == null || offer.getSegments().isEmpty()) {
-                                continue;
-                            }
-
-                            String customLink =
-                                    "https://flights.booking.com/flights/"
-                                            + offer.getSegments().getFirst().getDepartureAirport().getCode() + ".AIRPORT-"
-                                            + offer.getSegments().getFirst().getArrivalAirport().getCode() + ".AIRPORT/d7699_"
-                                            + offer.getToken().substring(6)
-                                            + "/?type=" + offer.getTripType()
-                                            + "&adults=" + queries.get("adults")
-                                            + "&children=" + queries.getOrDefault("childrenAge", "");
+        return fetchFlights(endpoint, queries);
+    }
 
-                            offer.setLinkFFFlight(customLink);
-                        }
+    private CompletableFuture<FlightSearchResponse> fetchFlights(String endpoint, Map<String, String> queries) {
+        // Decode streaming thẳng sang FlightSearchResponse, không qua JsonNode
+        return rapidApiService.sendGetDataAsync(endpoint, queries, FlightSearchResponse.class)
+                .thenApply(response -> {
+                    if (response != null) {
+                        attachDeepLinks(response, queries);
                     }
-
                     return response;
-                }
+                })
+                .exceptionally(ex -> {
+                    log.error("❌ Error fetching flights", ex);
+                    return null;
+                });
+    }
 
-                return null;
+    // 🔁 Gán custom link booking.com cho từng offer (package-private để benchmark gọi trực tiếp)
+    static void attachDeepLinks(FlightSearchResponse response, Map<String, String> queries) {
+        if (response.getFlightOffers() == null) {
+            return;
+        }
+        for (FlightSearchResponse.FlightOffers offer : response.getFlightOffers()) {
 
-            } catch (Exception e) {
-                log.error("❌ Error fetching flights", e);
-                return null;
+            if (offer.getSegments() == null || offer.getSegments().isEmpty()) {
+                continue;
             }
-        });
+
+            String customLink =
+                    "https://flights.booking.com/flights/"
+                            + offer.getSegments().getFirst().getDepartureAirport().getCode() + ".AIRPORT-"
+                            + offer.getSegments().getFirst().getArrivalAirport().getCode() + ".AIRPORT/d7699_"
+                            + offer.getToken().substring(6)
+                            + "/?type=" + offer.getTripType()
+                            + "&adults=" + queries.get("adults")
+                            + "&children=" + queries.getOrDefault("childrenAge", "");
+
+            offer.setLinkFFFlight(customLink);
+        }
+    }
+
+    private record Route(FlightDestinationInfor from, FlightDestinationInfor to) {
+    }
+
+    private <T> T treeToValue(JsonNode node, Class<T> type) {
+        try {
+            return objectMapper.treeToValue(node, type);
+        } catch (JsonProcessingException e) {
+            throw new CompletionException(e);
+        }
     }
 
 
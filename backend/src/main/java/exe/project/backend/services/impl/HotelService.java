@@ -1,11 +1,12 @@
 package exe.project.backend.services.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import exe.project.backend.dtos.local.hotel.HotelDestinationInfo;
 import exe.project.backend.dtos.responses.HotelSearchResponse;
 import exe.project.backend.enums.RapidApiEndPoint;
+import exe.project.backend.services.IDestinationIndexService;
 import exe.project.backend.services.IHotelService;
+import exe.project.backend.services.IRapidApiService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,90 +18,68 @@ import java.util.concurrent.CompletableFuture;
 @Service
 @RequiredArgsConstructor
 public class HotelService implements IHotelService {
-    private final RapidApiService rapidApiService;
-    private final ObjectMapper objectMapper;
+    private final IRapidApiService rapidApiService;
+    private final IDestinationIndexService destinationIndexService;
 
     @Override
     public CompletableFuture<HotelDestinationInfo> getHotelDestination(String query) {
         String endpoint = RapidApiEndPoint.SEARCH_HOTEL_DESTINATION.getPath();
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Gọi RapidApiService, nhận về JsonNode (data array)
-                JsonNode response = rapidApiService.sendGetDataNode(endpoint, Map.of("query", query));
-
-                if (response != null && response.isArray() && !response.isEmpty()) {
-                    JsonNode dest = response.get(0);
-
-                    return new HotelDestinationInfo(
-                            dest.path("dest_id").asText(""),      // destinationId
-                            dest.path("dest_type").asText(""),
-                            dest.path("city_name").asText(""),    // name
-                            dest.path("cc1").asText(""),          // country
-                            dest.path("latitude").asDouble(0.0),  // latitude
-                            dest.path("longitude").asDouble(0.0)  // longitude
-                    );
-                }
-                return null;
-            } catch (Exception e) {
-                log.error("❌ Error fetching hotel destination: {}", e.getMessage(), e);
-                return null;
-            }
-        });
+        // Tra index local trước, miss mới gọi RapidAPI
+        HotelDestinationInfo indexed = destinationIndexService.findHotelDestination(query);
+        if (indexed != null) {
+            return CompletableFuture.completedFuture(indexed);
+        }
+
+        // Gọi RapidApiService, nhận về JsonNode (data array)
+        return rapidApiService.sendGetDataNodeAsync(endpoint, Map.of("query", query))
+                .thenApply(response -> {
+                    if (response != null && response.isArray() && !response.isEmpty()) {
+                        HotelDestinationInfo destination = toDestinationInfo(response.get(0));
+                        destinationIndexService.indexHotelDestination(query, destination);
+                        return destination;
+                    }
+                    return null;
+                })
+                .exceptionally(ex -> {
+                    log.error("❌ Error fetching hotel destination: {}", ex.getMessage(), ex);
+                    return null;
+                });
     }
 
     @Override
     public CompletableFuture<List<HotelDestinationInfo>> getListHotelDestination(String query) {
         String endpoint = RapidApiEndPoint.SEARCH_HOTEL_DESTINATION.getPath();
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                JsonNode response = rapidApiService.sendGetDataNode(endpoint, Map.of("query", query));
-
-                List<HotelDestinationInfo> destinations = new ArrayList<>();
+        return rapidApiService.sendGetDataNodeAsync(endpoint, Map.of("query", query))
+                .thenApply(response -> {
+                    List<HotelDestinationInfo> destinations = new ArrayList<>();
 
-                if (response != null && response.isArray() && !response.isEmpty()) {
-
-                    for (JsonNode dest : response) {
-                        HotelDestinationInfo info = new HotelDestinationInfo(
-                                dest.path("dest_id").asText(""),
-                                dest.path("dest_type").asText(""),
-                                dest.path("city_name").asText(""),
-                                dest.path("cc1").asText(""),
-                                dest.path("latitude").asDouble(0.0),
-                                dest.path("longitude").asDouble(0.0)
-                        );
-
-                        destinations.add(info);
+                    if (response != null && response.isArray() && !response.isEmpty()) {
+                        for (JsonNode dest : response) {
+                            HotelDestinationInfo destination = toDestinationInfo(dest);
+                            destinationIndexService.indexHotelDestination(null, destination);
+                            destinations.add(destination);
+                        }
                     }
-                }
 
-                return destinations;
-
-            } catch (Exception e) {
-                log.error("❌ Error fetching hotel destination: {}", e.getMessage(), e);
-                return Collections.emptyList();
-            }
-        });
+                    return destinations;
+                })
+                .exceptionally(ex -> {
+                    log.error("❌ Error fetching hotel destination: {}", ex.getMessage(), ex);
+                    return Collections.emptyList();
+                });
     }
 
     @Override
     public CompletableFuture<HotelSearchResponse> getHotelByCoordinate(Map<String, String> queries) {
         String endpoint = RapidApiEndPoint.SEARCH_HOTEL_BY_COORDINATE.getPath();
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                JsonNode dataNode = rapidApiService.sendGetDataNode(endpoint, queries);
-                if (dataNode != null) {
-                    // Map JsonNode "data" sang DTO HotelSearchResponse
-                    return objectMapper.treeToValue(dataNode, HotelSearchResponse.class);
-                }
-                return null;
-            } catch (Exception e) {
-                log.error("❌ Error fetching hotels by coordinate: {}", e.getMessage(), e);
-                return null;
-            }
-        });
+        return rapidApiService.sendGetDataAsync(endpoint, queries, HotelSearchResponse.class)
+                .exceptionally(ex -> {
+                    log.error("❌ Error fetching hotels by coordinate: {}", ex.getMessage(), ex);
+                    return null;
+                });
     }
 
     @Override
@@ -132,20 +111,11 @@ public class HotelService implements IHotelService {
             log.info("📌 Updated query params gửi đi: {}", updatedQueries);
 
             // Gọi API search hotels
-            return CompletableFuture.supplyAsync(() -> {
-                try {
-                    JsonNode dataNode = rapidApiService.sendGetDataNode(endpoint, updatedQueries);
-                    log.info("Data: {}", dataNode);
-
-                    if (dataNode != null) {
-                        return objectMapper.treeToValue(dataNode, HotelSearchResponse.class);
-                    }
-                    return null;
-                } catch (Exception e) {
-                    log.error("❌ Error fetching hotels by destination: {}", e.getMessage(), e);
-                    return null;
-                }
-            });
+            return rapidApiService.sendGetDataAsync(endpoint, updatedQueries, HotelSearchResponse.class)
+                    .exceptionally(ex -> {
+                        log.error("❌ Error fetching hotels by destination: {}", ex.getMessage(), ex);
+                        return null;
+                    });
         });
     }
 
@@ -153,19 +123,29 @@ public class HotelService implements IHotelService {
     public CompletableFuture<String> getLink(Map<String, String> queries) {
         String endpoint = RapidApiEndPoint.GET_HOTEL_DETAIL.getPath();
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                JsonNode dataNode = rapidApiService.sendGetDataNode(endpoint, queries);
-                if (dataNode != null) {
-                    // lấy field "url" trong dataNode
-                    return dataNode.path("url").asText("");
-                }
-                return null;
-            } catch (Exception e) {
-                log.error("❌ Error fetching hotel detail link: {}", e.getMessage(), e);
-                return null;
-            }
-        });
+        return rapidApiService.sendGetDataNodeAsync(endpoint, queries)
+                .thenApply(dataNode -> {
+                    if (dataNode != null) {
+                        // lấy field "url" trong dataNode
+                        return dataNode.path("url").asText("");
+                    }
+                    return null;
+                })
+                .exceptionally(ex -> {
+                    log.error("❌ Error fetching hotel detail link: {}", ex.getMessage(), ex);
+                    return null;
+                });
+    }
+
+    private HotelDestinationInfo toDestinationInfo(JsonNode dest) {
+        return new HotelDestinationInfo(
+                dest.path("dest_id").asText(""),      // destinationId
+                dest.path("dest_type").asText(""),
+                dest.path("city_name").asText(""),    // name
+                dest.path("cc1").asText(""),          // country
+                dest.path("latitude").asDouble(0.0),  // latitude
+                dest.path("longitude").asDouble(0.0)  // longitude
+        );
     }
 
 }
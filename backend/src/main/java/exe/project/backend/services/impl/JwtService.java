@@ -5,10 +5,11 @@ import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import exe.project.backend.cache.VerifiedTokenCache;
 import exe.project.backend.models.User;
-import exe.project.backend.repositories.TokenBlacklistRepository;
 import exe.project.backend.services.IJwtService;
-import lombok.RequiredArgsConstructor;
+import exe.project.backend.services.ITokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -18,16 +19,34 @@ import java.util.Date;
 import java.util.StringJoiner;
 
 @Service
-@RequiredArgsConstructor
 public class JwtService implements IJwtService {
 
-    private final TokenBlacklistRepository tokenBlacklistRepository;
-
-    @Value("${jwt.signerKey}")
-    private String signerKey;
-
-    @Value("${jwt.validTime}")
-    private long accessExpire;
+    private final ITokenRevocationService tokenRevocationService;
+    private final long accessExpire;
+
+    // MACSigner/MACVerifier thread-safe, tạo một lần thay vì mỗi lần ký/verify
+    private final MACSigner signer;
+    private final MACVerifier verifier;
+    private final VerifiedTokenCache<JWTClaimsSet> claimsCache;
+
+    public JwtService(
+            ITokenRevocationService tokenRevocationService,
+            @Value("${jwt.signerKey}") String signerKey,
+            @Value("${jwt.validTime}") long accessExpire,
+            @Value("${jwt.claims-cache.max-entries:10000}") long claimsCacheMaxEntries,
+            MeterRegistry meterRegistry) {
+        this.tokenRevocationService = tokenRevocationService;
+        this.accessExpire = accessExpire;
+        try {
+            this.signer = new MACSigner(signerKey.getBytes());
+            this.verifier = new MACVerifier(signerKey.getBytes());
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Invalid jwt.signerKey", e);
+        }
+        this.claimsCache = new VerifiedTokenCache<>(
+                "accessTokenClaims", claimsCacheMaxEntries, meterRegistry,
+                claims -> claims.getExpirationTime() != null ? claims.getExpirationTime().toInstant() : null);
+    }
 
     @Override
     public long getExpirationTime() {
@@ -58,13 +77,14 @@ public class JwtService implements IJwtService {
     @Override
     public boolean isValidAcessToken(String token, User user) {
 
-        if (tokenBlacklistRepository.existsByToken(token)) {
+        if (tokenRevocationService.isRevoked(token)) {
             return false;
         }
 
-        String email = extractUserName(token);
+        // Lấy claims một lần cho cả 2 check
+        JWTClaimsSet claims = extractAllClaims(token);
 
-        return user.getEmail().equals(email) && !isTokenExpired(token);
+        return user.getEmail().equals(claims.getSubject()) && claims.getExpirationTime().after(new Date());
     }
 
     @Override
@@ -75,15 +95,16 @@ public class JwtService implements IJwtService {
 
     // ================= PRIVATE =================
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiredTime(token).before(new Date());
+    // Mỗi token chỉ parse + HMAC một lần cho tới khi hết hạn, các lần sau lấy từ cache
+    private JWTClaimsSet extractAllClaims(String token) {
+        return claimsCache.get(token, this::verifyAndParse);
     }
 
-    private JWTClaimsSet extractAllClaims(String token) {
+    private JWTClaimsSet verifyAndParse(String token) {
         try {
             SignedJWT signedJWT = SignedJWT.parse(token);
 
-            if (!signedJWT.verify(new MACVerifier(signerKey.getBytes()))) {
+            if (!signedJWT.verify(verifier)) {
                 throw new RuntimeException("JWT signature verification failed");
             }
 
@@ -119,7 +140,7 @@ public class JwtService implements IJwtService {
                 new Payload(claimsSet.toJSONObject()));
 
         try {
-            jwsObject.sign(new MACSigner(signerKey.getBytes()));
+            jwsObject.sign(signer);
             return jwsObject.serialize();
         } catch (JOSEException e) {
             throw new RuntimeException("Cannot sign JWT", e);
@@ -0,0 +1,197 @@
+package exe.project.backend.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exe.project.backend.enums.OutboxEventType;
+import exe.project.backend.enums.OutboxStatus;
+import exe.project.backend.models.OutboxEvent;
+import exe.project.backend.repositories.OutboxEventRepository;
+import exe.project.backend.services.IOutboxService;
+import exe.project.backend.services.outbox.OutboxEventHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Transactional outbox. Event được ghi cùng transaction nghiệp vụ nên không mất khi crash và không gửi
+ * khi transaction rollback; worker (outboxExecutor, 1 thread) xử lý sau khi commit.
+ * Worker nhận event theo kiểu lease: transaction ngắn khoá lô (SKIP LOCKED), tăng attempts và dời
+ * next_attempt_at ra sau lease rồi commit ngay, handler chạy ngoài transaction. Node chết giữa chừng
+ * thì hết lease event tự được nhận lại, nên handler có thể chạy lặp.
+ * Lease phải đủ cho cả lô chạy tuần tự: batch-size x thời gian tối đa của một handler (email chờ SMTP tới
+ * mail-dispatch.delivery-timeout-ms) không được vượt lease-seconds, sai thì không cho khởi động.
+ * Event nào tới lượt mà lease còn lại không đủ cho một handler thì bỏ qua, để lần claim sau nhận lại.
+ */
+@Slf4j
+@Service
+public class OutboxService implements IOutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final Executor outboxExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<OutboxEventType, OutboxEventHandler> handlers = new EnumMap<>(OutboxEventType.class);
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration maxHandlerDuration;
+    private final int retentionDays;
+
+    public OutboxService(
+            OutboxEventRepository outboxEventRepository,
+            ObjectMapper objectMapper,
+            @Qualifier("outboxExecutor") Executor outboxExecutor,
+            PlatformTransactionManager transactionManager,
+            List<OutboxEventHandler> handlers,
+            @Value("${outbox.batch-size:5}") int batchSize,
+            @Value("${outbox.max-attempts:10}") int maxAttempts,
+            @Value("${outbox.lease-seconds:300}") long leaseSeconds,
+            @Value("${outbox.retention-days:7}") int retentionDays,
+            @Value("${mail-dispatch.delivery-timeout-ms:60000}") long maxHandlerMs) {
+        if (batchSize * maxHandlerMs > leaseSeconds * 1000) {
+            throw new IllegalStateException("outbox.batch-size (" + batchSize + ") x mail-dispatch.delivery-timeout-ms ("
+                    + maxHandlerMs + ") exceeds outbox.lease-seconds (" + leaseSeconds + "): "
+                    + "the tail of a batch would outlive its lease and be processed twice");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.outboxExecutor = outboxExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        handlers.forEach(handler -> this.handlers.put(handler.getType(), handler));
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxHandlerDuration = Duration.ofMillis(maxHandlerMs);
+        this.retentionDays = retentionDays;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEventType type, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize outbox payload for " + type, e);
+        }
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(type)
+                .payload(json)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    /**
+     * Lưới an toàn: event publish lúc worker đầy hàng đợi, event chờ retry, event hết lease
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @Override
+    public int drain() {
+        int processed = 0;
+        List<OutboxEvent> batch;
+        while (!(batch = transactionTemplate.execute(status -> claimBatch())).isEmpty()) {
+            for (OutboxEvent event : batch) {
+                // Lease (next_attempt_at) không còn đủ cho handler: để nguyên, hết lease worker khác/lần sau nhận lại
+                if (LocalDateTime.now().plus(maxHandlerDuration).isAfter(event.getNextAttemptAt())) {
+                    log.warn("Outbox event {} skipped: remaining lease shorter than handler timeout", event.getId());
+                    continue;
+                }
+                process(event);
+                processed++;
+            }
+        }
+        return processed;
+    }
+
+    @Scheduled(cron = "${outbox.cleanup-cron:0 0 3 * * *}")
+    public void deleteProcessed() {
+        try {
+            outboxEventRepository.deleteByStatusAndUpdateAtBefore(OutboxStatus.DONE,
+                    LocalDateTime.now().minusDays(retentionDays));
+        } catch (Exception e) {
+            log.warn("Cannot delete processed outbox events: {}", e.getMessage());
+        }
+    }
+
+    // outboxExecutor chỉ có 1 thread + 1 chỗ trong hàng đợi (dư thì bỏ), nên nhiều lần đánh thức dồn thành 1 lần drain
+    private void wakeUp() {
+        outboxExecutor.execute(() -> {
+            try {
+                int processed = drain();
+                if (processed > 0) {
+                    log.debug("Processed {} outbox events", processed);
+                }
+            } catch (Exception e) {
+                log.error("Outbox drain failed", e);
+            }
+        });
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.claimDue(now, batchSize);
+        for (OutboxEvent event : events) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setNextAttemptAt(now.plus(lease));
+        }
+        return outboxEventRepository.saveAll(events);
+    }
+
+    private void process(OutboxEvent event) {
+        OutboxEventHandler handler = handlers.get(event.getEventType());
+        try {
+            if (handler == null) {
+                throw new IllegalStateException("No outbox handler for " + event.getEventType());
+            }
+            handler.handle(event.getPayload());
+            event.setStatus(OutboxStatus.DONE);
+            event.setLastError(null);
+        } catch (Exception e) {
+            boolean exhausted = event.getAttempts() >= maxAttempts;
+            log.warn("Outbox event {} ({}) failed, attempt {}/{}: {}", event.getId(), event.getEventType(),
+                    event.getAttempts(), maxAttempts, e.getMessage());
+
+            event.setStatus(exhausted ? OutboxStatus.FAILED : OutboxStatus.PENDING);
+            event.setNextAttemptAt(LocalDateTime.now().plus(backoff(event.getAttempts())));
+            event.setLastError(truncate(String.valueOf(e.getMessage())));
+        }
+        outboxEventRepository.save(event);
+    }
+
+    // 10s, 20s, 40s... tối đa 1 giờ
+    private static Duration backoff(int attempts) {
+        long seconds = 10L << Math.min(attempts - 1, 9);
+        return Duration.ofSeconds(Math.min(seconds, 3600));
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
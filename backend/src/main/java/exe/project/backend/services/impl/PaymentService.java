@@ -1,24 +1,29 @@
 package exe.project.backend.services.impl;
 
 import com.google.gson.Gson;
+import exe.project.backend.dtos.local.SubscriptionPackageInfo;
+import exe.project.backend.dtos.local.SubscriptionPurchasedPayload;
 import exe.project.backend.dtos.requests.PurchaseRequest;
+import exe.project.backend.dtos.responses.CursorPage;
 import exe.project.backend.dtos.responses.PaymentHistoryResponse;
 import exe.project.backend.dtos.responses.PurchaseResponse;
+import exe.project.backend.enums.OutboxEventType;
 import exe.project.backend.enums.PaymentStatus;
 import exe.project.backend.models.Payment;
-import exe.project.backend.models.SubscriptionPackage;
 import exe.project.backend.repositories.PaymentRepository;
-import exe.project.backend.repositories.SubscriptionPackageRepository;
+import exe.project.backend.services.IDashboardRollupService;
+import exe.project.backend.services.IOutboxService;
 import exe.project.backend.services.IPaymentService;
 import exe.project.backend.services.IPayOSService;
+import exe.project.backend.services.ISubscriptionPackageCatalogService;
 import exe.project.backend.services.ISubscriptionService;
-import exe.project.backend.services.IEmailService;
-import exe.project.backend.repositories.IUserRepository;
-import exe.project.backend.models.User;
+import exe.project.backend.utils.CursorUtil;
+import exe.project.backend.utils.OrderCodeGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
@@ -26,6 +31,8 @@ import org.springframework.transaction.annotation.Transactional;
 import vn.payos.model.v2.paymentRequests.CreatePaymentLinkResponse;
 import vn.payos.model.webhooks.WebhookData;
 
+import java.util.List;
+
 /**
  * Implementation của Payment Service
  */
@@ -35,11 +42,12 @@ import vn.payos.model.webhooks.WebhookData;
 public class PaymentService implements IPaymentService {
 
         private final PaymentRepository paymentRepository;
-        private final SubscriptionPackageRepository packageRepository;
+        private final ISubscriptionPackageCatalogService packageCatalogService;
         private final IPayOSService payOSService;
         private final ISubscriptionService subscriptionService;
-        private final IEmailService emailService;
-        private final IUserRepository userRepository;
+        private final IDashboardRollupService dashboardRollupService;
+        private final IOutboxService outboxService;
+        private final OrderCodeGenerator orderCodeGenerator;
         @Value("${payos.return.url}")
         private String returnUrl;
 
@@ -55,13 +63,13 @@ public class PaymentService implements IPaymentService {
                                 request.getUserId(), request.getPackageCode());
 
                 // 1. Validate package
-                SubscriptionPackage pkg = packageRepository
-                                .findByCodeAndIsActiveTrue(request.getPackageCode())
+                SubscriptionPackageInfo pkg = packageCatalogService
+                                .findActiveByCode(request.getPackageCode())
                                 .orElseThrow(() -> new RuntimeException(
                                                 "Package not found or inactive: " + request.getPackageCode()));
 
-                // 2. Generate unique orderCode (timestamp-based)
-                Long orderCode = System.currentTimeMillis();
+                // 2. Generate unique orderCode (Snowflake: thời gian | node | sequence)
+                Long orderCode = orderCodeGenerator.next();
                 log.info("Generated orderCode: {}", orderCode);
 
                 // 3. Tạo payment record với status = PENDING
@@ -108,6 +116,16 @@ public class PaymentService implements IPaymentService {
 
                 // 1. Verify signature
                 WebhookData webhookData = payOSService.verifyWebhookSignature(webhookBody);
+                applyWebhook(webhookData);
+        }
+
+        @Override
+        @Transactional(isolation = Isolation.SERIALIZABLE)
+        public void processPayOSWebhook(WebhookData webhookData) {
+                applyWebhook(webhookData);
+        }
+
+        private void applyWebhook(WebhookData webhookData) {
                 Long orderCode = webhookData.getOrderCode();
 
                 log.info("Webhook verified for orderCode: {}, status: {}", orderCode, webhookData.getCode());
@@ -141,9 +159,11 @@ public class PaymentService implements IPaymentService {
 
                 log.info("Payment updated with status: {}", newStatus);
 
-                // 6. Nếu SUCCESS -> gia hạn subscription
+                // 6. Nếu SUCCESS -> cộng rollup dashboard, gia hạn subscription
                 if (newStatus == PaymentStatus.SUCCESS) {
-                        SubscriptionPackage pkg = packageRepository.findById(payment.getPackageId())
+                        dashboardRollupService.recordPaymentSuccess(payment);
+
+                        SubscriptionPackageInfo pkg = packageCatalogService.findById(payment.getPackageId())
                                         .orElseThrow(() -> new RuntimeException("Package not found"));
 
                         subscriptionService.extendSubscription(payment.getUserId(), pkg.getDurationDays());
@@ -151,33 +171,15 @@ public class PaymentService implements IPaymentService {
                         log.info("Subscription extended successfully for userId: {} with {} days",
                                         payment.getUserId(), pkg.getDurationDays());
 
-                        // 7. Gửi email thông báo mua gói thành công
-                        try {
-                                User user = userRepository.findById(payment.getUserId())
-                                                .orElse(null);
-
-                                if (user != null && user.getEmail() != null) {
-                                        // Lấy subscription để biết expiredAt
-                                        var subscription = subscriptionService.getStatus(payment.getUserId());
-
-                                        emailService.sendSubscriptionConfirmationEmail(
-                                                        user.getEmail(),
-                                                        user.getEmail(), // userName = email vì User model không có name
-                                                                         // field
-                                                        pkg.getDisplayName(),
-                                                        payment.getAmount(),
-                                                        subscription.getExpiredAt());
-
-                                        log.info("Confirmation email sent to userId: {}", payment.getUserId());
-                                } else {
-                                        log.warn("Cannot send email: User not found or email is null for userId: {}",
-                                                        payment.getUserId());
-                                }
-                        } catch (Exception e) {
-                                // Log error nhưng không fail transaction
-                                log.error("Failed to send confirmation email for userId: {}",
-                                                payment.getUserId(), e);
-                        }
+                        // 7. Email xác nhận đi qua outbox: ghi cùng transaction, worker gửi sau khi commit
+                        // (đọc user + expiredAt ở worker, không giữ lock payment trong lúc đó)
+                        outboxService.publish(OutboxEventType.SUBSCRIPTION_CONFIRMATION_EMAIL,
+                                        SubscriptionPurchasedPayload.builder()
+                                                        .userId(payment.getUserId())
+                                                        .paymentId(payment.getId())
+                                                        .packageName(pkg.getDisplayName())
+                                                        .amount(payment.getAmount())
+                                                        .build());
                 }
 
                 log.info("Webhook processed successfully for orderCode: {}", orderCode);
@@ -187,22 +189,26 @@ public class PaymentService implements IPaymentService {
         public Page<PaymentHistoryResponse> getPaymentHistory(Long userId, Pageable pageable) {
                 log.info("Getting successful payment history for userId: {}", userId);
 
-                Page<Payment> payments = paymentRepository.findByUserIdAndStatusOrderByCreateAtDesc(
-                                userId, PaymentStatus.SUCCESS, pageable);
-
-                return payments.map(payment -> {
-                        SubscriptionPackage pkg = packageRepository.findById(payment.getPackageId())
-                                        .orElse(null);
+                // Một query projection join subscription_packages (+ count), không còn findById cho từng payment
+                return paymentRepository.findHistory(userId, PaymentStatus.SUCCESS, pageable);
+        }
 
-                        String packageName = pkg != null ? pkg.getDisplayName() : "Unknown Package";
+        @Override
+        public CursorPage<PaymentHistoryResponse> getPaymentHistory(Long userId, String cursor, int size) {
+                log.info("Getting successful payment history for userId: {}, cursor: {}", userId, cursor);
+
+                // Lấy dư 1 dòng để biết còn trang sau hay không
+                Pageable limit = PageRequest.of(0, size + 1);
+                List<PaymentHistoryResponse> rows;
+                if (cursor == null || cursor.isBlank()) {
+                        rows = paymentRepository.findHistoryFirst(userId, PaymentStatus.SUCCESS, limit);
+                } else {
+                        CursorUtil.Position position = CursorUtil.decode(cursor);
+                        rows = paymentRepository.findHistoryAfter(userId, PaymentStatus.SUCCESS,
+                                        position.createAt(), position.id(), limit);
+                }
 
-                        return PaymentHistoryResponse.builder()
-                                        .paymentId(payment.getId())
-                                        .packageName(packageName)
-                                        .amount(payment.getAmount())
-                                        .status(payment.getStatus())
-                                        .createdAt(payment.getCreateAt())
-                                        .build();
-                });
+                return CursorUtil.toPage(rows, size,
+                                PaymentHistoryResponse::getCreatedAt, PaymentHistoryResponse::getPaymentId);
         }
 }
@@ -0,0 +1,192 @@
+package exe.project.backend.services.impl;
+
+import com.google.gson.Gson;
+import exe.project.backend.enums.WebhookInboxStatus;
+import exe.project.backend.models.PaymentWebhookInbox;
+import exe.project.backend.repositories.PaymentWebhookInboxRepository;
+import exe.project.backend.services.IPayOSService;
+import exe.project.backend.services.IPaymentService;
+import exe.project.backend.services.IPaymentWebhookService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import vn.payos.model.webhooks.WebhookData;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hàng đợi nhận webhook PayOS. Request chỉ verify chữ ký và insert một dòng payment_webhook_inbox
+ * (trùng dedup_key thì bỏ qua) rồi ACK, nên độ trễ không phụ thuộc transaction SERIALIZABLE phía sau.
+ * Worker chia partition theo orderCode, mỗi partition 1 thread: cùng orderCode luôn xử lý tuần tự,
+ * orderCode khác nhau chạy song song. Dòng trong DB là nguồn gốc; hàng đợi trong bộ nhớ đầy hoặc mất
+ * khi restart thì lần quét định kỳ đưa lại vào. Xử lý idempotent nhờ lock payment + kiểm tra SUCCESS.
+ */
+@Slf4j
+@Service
+public class PaymentWebhookService implements IPaymentWebhookService {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final IPaymentService paymentService;
+    private final IPayOSService payOSService;
+    private final PaymentWebhookInboxRepository inboxRepository;
+    private final boolean asyncIngest;
+    private final ThreadPoolExecutor[] partitions;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration pollInterval;
+    private final int retentionDays;
+
+    private final Gson gson = new Gson();
+
+    public PaymentWebhookService(
+            IPaymentService paymentService,
+            IPayOSService payOSService,
+            PaymentWebhookInboxRepository inboxRepository,
+            @Value("${payos.webhook.async-ingest:true}") boolean asyncIngest,
+            @Value("${payos.webhook.partitions:4}") int partitionCount,
+            @Value("${payos.webhook.partition-queue-capacity:1000}") int queueCapacity,
+            @Value("${payos.webhook.max-attempts:8}") int maxAttempts,
+            @Value("${payos.webhook.lease-seconds:120}") long leaseSeconds,
+            @Value("${payos.webhook.poll-interval-ms:10000}") long pollIntervalMs,
+            @Value("${payos.webhook.retention-days:7}") int retentionDays) {
+        this.paymentService = paymentService;
+        this.payOSService = payOSService;
+        this.inboxRepository = inboxRepository;
+        this.asyncIngest = asyncIngest;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.pollInterval = Duration.ofMillis(pollIntervalMs);
+        this.retentionDays = retentionDays;
+
+        this.partitions = new ThreadPoolExecutor[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            // Hàng đợi đầy thì bỏ task: dòng vẫn RECEIVED trong DB, lần quét sau sẽ đưa lại
+            partitions[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    new CustomizableThreadFactory("PayOSWebhook-" + i + "-"),
+                    new ThreadPoolExecutor.DiscardPolicy());
+        }
+    }
+
+    @Override
+    public void receive(Object webhookBody) throws Exception {
+        if (!asyncIngest) {
+            paymentService.handlePayOSCallback(webhookBody);
+            return;
+        }
+
+        WebhookData webhookData = payOSService.verifyWebhookSignature(webhookBody);
+        Long orderCode = webhookData.getOrderCode();
+        String dedupKey = orderCode + ":" + webhookData.getCode() + ":" + webhookData.getReference();
+
+        Optional<Long> id = inboxRepository.insertIfAbsent(orderCode, dedupKey, gson.toJson(webhookData),
+                LocalDateTime.now());
+        if (id.isEmpty()) {
+            log.info("Duplicate PayOS webhook ignored, orderCode: {}", orderCode);
+            return;
+        }
+
+        log.info("PayOS webhook queued, orderCode: {}, inboxId: {}", orderCode, id.get());
+        dispatch(id.get(), orderCode);
+    }
+
+    /**
+     * Đưa lại các dòng chưa xử lý: mất khỏi hàng đợi (restart, hàng đợi đầy), chờ retry, hoặc worker chết giữa chừng (hết lease)
+     */
+    @Scheduled(fixedDelayString = "${payos.webhook.poll-interval-ms:10000}")
+    public void redispatchDue() {
+        if (!asyncIngest) {
+            return;
+        }
+        try {
+            // Trừ một chu kỳ quét để không đưa trùng dòng vừa insert mà worker sắp xử lý
+            LocalDateTime dueBefore = LocalDateTime.now().minus(pollInterval);
+            for (PaymentWebhookInbox entry : inboxRepository
+                    .findTop200ByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(WebhookInboxStatus.RECEIVED, dueBefore)) {
+                dispatch(entry.getId(), entry.getOrderCode());
+            }
+        } catch (Exception e) {
+            log.warn("Cannot redispatch PayOS webhooks: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${payos.webhook.cleanup-cron:0 15 3 * * *}")
+    public void deleteProcessed() {
+        try {
+            inboxRepository.deleteByStatusAndCreateAtBefore(WebhookInboxStatus.PROCESSED,
+                    LocalDateTime.now().minusDays(retentionDays));
+        } catch (Exception e) {
+            log.warn("Cannot delete processed PayOS webhooks: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bỏ các task còn trong hàng đợi (không chạy lúc datasource/transaction manager đang đóng, tránh tốn attempt);
+     * dòng inbox vẫn RECEIVED nên redispatchDue ở lần chạy sau sẽ nhận lại. Task đang chạy được chờ có giới hạn.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdownNow();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        for (ThreadPoolExecutor partition : partitions) {
+            if (!partition.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                log.warn("PayOS webhook worker did not stop within {}s", SHUTDOWN_TIMEOUT_SECONDS);
+                return;
+            }
+        }
+    }
+
+    private void dispatch(Long id, Long orderCode) {
+        partitions[Math.floorMod(Long.hashCode(orderCode), partitions.length)].execute(() -> process(id));
+    }
+
+    private void process(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            // Task trùng (quét lại, hàng đợi nhận 2 lần) không nhận được lease thì bỏ qua
+            if (inboxRepository.claim(id, now, now.plus(lease)) == 0) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("Cannot claim PayOS webhook {}: {}", id, e.getMessage());
+            return;
+        }
+
+        PaymentWebhookInbox entry = inboxRepository.findById(id).orElse(null);
+        if (entry == null) {
+            return;
+        }
+
+        try {
+            paymentService.processPayOSWebhook(gson.fromJson(entry.getPayload(), WebhookData.class));
+            inboxRepository.updateResult(id, WebhookInboxStatus.PROCESSED, entry.getNextAttemptAt(), null);
+        } catch (Exception e) {
+            boolean exhausted = entry.getAttempts() >= maxAttempts;
+            log.warn("PayOS webhook {} (orderCode {}) failed, attempt {}/{}: {}", id, entry.getOrderCode(),
+                    entry.getAttempts(), maxAttempts, e.getMessage());
+
+            String error = String.valueOf(e.getMessage());
+            inboxRepository.updateResult(id,
+                    exhausted ? WebhookInboxStatus.FAILED : WebhookInboxStatus.RECEIVED,
+                    LocalDateTime.now().plus(backoff(entry.getAttempts())),
+                    error.length() > 1000 ? error.substring(0, 1000) : error);
+        }
+    }
+
+    // 5s, 10s, 20s... tối đa 10 phút
+    private static Duration backoff(int attempts) {
+        long seconds = 5L << Math.min(attempts - 1, 7);
+        return Duration.ofSeconds(Math.min(seconds, 600));
+    }
+}
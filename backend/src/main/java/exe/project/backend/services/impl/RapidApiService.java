@@ -1,29 +1,98 @@
 package exe.project.backend.services.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exe.project.backend.cache.RapidApiResponseCache;
+import exe.project.backend.config.RapidApiExecutors;
 import exe.project.backend.dtos.local.ApiWrapperResponse;
+import exe.project.backend.enums.RapidApiEndPoint;
+import exe.project.backend.exceptions.RapidApiLimitExceededException;
 import exe.project.backend.services.IRapidApiService;
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import exe.project.backend.utils.AimdLimiter;
+import exe.project.backend.utils.RapidApiResponseReader;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.netty.http.client.PrematureCloseException;
 
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class RapidApiService implements IRapidApiService {
     private final WebClient rapidApiClient;
+    private final RapidApiResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final RapidApiExecutors executors;
+
+    // Các request đang bay, key = endpoint + params đã chuẩn hoá (single-flight)
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
+
+    // Limit đồng thời thích nghi theo latency, mỗi endpoint một limiter (thay cho THREADPOOL bulkhead cố định)
+    private final Map<RapidApiEndPoint, AimdLimiter> limiters = new EnumMap<>(RapidApiEndPoint.class);
+    private final Map<RapidApiEndPoint, Counter> rejectedCounters = new EnumMap<>(RapidApiEndPoint.class);
+
+    // Gọi qua proxy để CircuitBreaker/Retry vẫn được áp dụng (self-invocation bỏ qua AOP)
+    @Lazy
+    @Autowired
+    private IRapidApiService self;
+
+    public RapidApiService(WebClient rapidApiClient, RapidApiResponseCache responseCache,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           RapidApiExecutors executors,
+                           @Value("${rapid-api.limiter.initial-limit:20}") int initialLimit,
+                           @Value("${rapid-api.limiter.min-limit:2}") int minLimit,
+                           @Value("${rapid-api.limiter.max-limit:200}") int maxLimit,
+                           @Value("${rapid-api.limiter.backoff-ratio:0.9}") double backoffRatio,
+                           @Value("${rapid-api.limiter.latency-threshold-ms:3000}") long latencyThresholdMs) {
+        this.rapidApiClient = rapidApiClient;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.executors = executors;
+        this.coalescedCounter = Counter.builder("rapidapi.requests.coalesced")
+                .description("Requests served by joining an identical in-flight RapidAPI call")
+                .register(meterRegistry);
+
+        for (RapidApiEndPoint endPoint : RapidApiEndPoint.values()) {
+            AimdLimiter limiter = new AimdLimiter(initialLimit, minLimit, maxLimit, backoffRatio,
+                    Duration.ofMillis(latencyThresholdMs));
+            limiters.put(endPoint, limiter);
+            Gauge.builder("rapidapi.limiter.limit", limiter, AimdLimiter::getLimit)
+                    .description("Current adaptive concurrency limit of the RapidAPI endpoint")
+                    .tag("endpoint", endPoint.name())
+                    .register(meterRegistry);
+            Gauge.builder("rapidapi.limiter.inflight", limiter, AimdLimiter::getInFlight)
+                    .description("RapidAPI requests currently in flight")
+                    .tag("endpoint", endPoint.name())
+                    .register(meterRegistry);
+            rejectedCounters.put(endPoint, Counter.builder("rapidapi.limiter.rejected")
+                    .description("RapidAPI requests shed because the endpoint reached its concurrency limit")
+                    .tag("endpoint", endPoint.name())
+                    .register(meterRegistry));
+        }
+    }
 
     @Override
     @CircuitBreaker(name = "rapidApiCB", fallbackMethod = "fallbackResponse")
-    @Bulkhead(name = "rapidApiThreadPoolBulkhead", type = Bulkhead.Type.THREADPOOL)
     @Retry(name = "rapidApiRetry")
     public CompletableFuture<ApiWrapperResponse> sendGetRequestWrapper(String endpoint, Map<String, String> params) {
         UriComponentsBuilder builder = UriComponentsBuilder.fromPath(endpoint);
@@ -32,16 +101,16 @@ public class RapidApiService implements IRapidApiService {
         }
         String uri = builder.toUriString();
 
-        return rapidApiClient.get()
+        return limited(endpoint, () -> rapidApiClient.get()
                 .uri(uri)
                 .retrieve()
                 .bodyToMono(ApiWrapperResponse.class)
-                .toFuture(); // async, để Bulkhead quản lý thread pool
+                .toFuture());
     }
 
-    // Fallback khi queue đầy hoặc circuit breaker mở
+    // Fallback khi endpoint chạm limit đồng thời hoặc circuit breaker mở
     private CompletableFuture<ApiWrapperResponse> fallbackResponse(String endpoint, Map<String, String> params, Throwable ex) {
-        System.out.println("⚠️ RapidAPI fallback triggered: " + ex.getMessage());
+        log.warn("⚠️ RapidAPI fallback triggered: {}", ex.getMessage());
         return CompletableFuture.completedFuture(
                 ApiWrapperResponse.builder()
                         .status(false)
@@ -51,14 +120,161 @@ public class RapidApiService implements IRapidApiService {
         );
     }
 
+    /**
+     * Body thô, chưa decode. Service decode streaming thẳng sang DTO qua {@link #sendGetDataAsync}.
+     */
+    @Override
+    @CircuitBreaker(name = "rapidApiCB", fallbackMethod = "fallbackRaw")
+    @Retry(name = "rapidApiRetry")
+    public CompletableFuture<byte[]> sendGetRequestRaw(String endpoint, Map<String, String> params) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromPath(endpoint);
+        if (params != null) {
+            params.forEach(builder::queryParam);
+        }
+        String uri = builder.toUriString();
+
+        return limited(endpoint, () -> rapidApiClient.get()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .toFuture());
+    }
+
+    // Fallback của sendGetRequestRaw: body null, service nhận data = null như khi status false
+    private CompletableFuture<byte[]> fallbackRaw(String endpoint, Map<String, String> params, Throwable ex) {
+        log.warn("⚠️ RapidAPI fallback triggered: {}", ex.getMessage());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Chạy lời gọi WebClient trong limit của endpoint. Hết chỗ thì trả future lỗi ngay để fallback xử lý,
+     * không xếp hàng; mỗi lần Retry thử lại cũng phải lấy chỗ mới. Latency/kết quả quay lại điều chỉnh limit.
+     */
+    private <T> CompletableFuture<T> limited(String endpoint, Supplier<CompletableFuture<T>> call) {
+        RapidApiEndPoint endPoint = RapidApiEndPoint.fromPath(endpoint);
+        if (endPoint == null) {
+            return call.get();
+        }
+
+        AimdLimiter limiter = limiters.get(endPoint);
+        if (!limiter.tryAcquire()) {
+            rejectedCounters.get(endPoint).increment();
+            return CompletableFuture.failedFuture(new RapidApiLimitExceededException(endpoint, limiter.getLimit()));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException ex) {
+            limiter.onIgnored();
+            throw ex;
+        }
+
+        return future.whenComplete((response, ex) -> {
+            if (ex == null) {
+                limiter.onSuccess(System.nanoTime() - start);
+            } else if (isOverload(ex)) {
+                limiter.onDropped();
+            } else {
+                limiter.onIgnored();
+            }
+        });
+    }
+
+    // Chỉ timeout, lỗi kết nối, premature close, 429, 5xx mới là dấu hiệu upstream quá tải.
+    // Cancel, lỗi decode (DataBufferLimitException...), 4xx khác: không nói gì về tải, chỉ trả chỗ
+    private boolean isOverload(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException response) {
+                return response.getStatusCode().value() == 429 || response.getStatusCode().is5xxServerError();
+            }
+            if (cause instanceof TimeoutException            // gồm PoolAcquireTimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException // responseTimeout (ReadTimeoutException)
+                    || cause instanceof SocketTimeoutException
+                    || cause instanceof ConnectException     // gồm ConnectTimeoutException của Netty
+                    || cause instanceof PrematureCloseException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public JsonNode sendGetDataNode(String endpoint, Map<String, String> params) {
+        return sendGetDataNodeAsync(endpoint, params).join();
+    }
+
+    /**
+     * Non-blocking: không thread nào chờ I/O, các stage sau chạy trên executor của upstream (xem RapidApiExecutors).
+     * Lỗi upstream được log và trả về null giống sendGetDataNode trước đây.
+     */
+    @Override
+    public CompletableFuture<JsonNode> sendGetDataNodeAsync(String endpoint, Map<String, String> params) {
+        return sendGetDataAsync(endpoint, params, JsonNode.class);
+    }
+
+    /**
+     * Decode field "data" thẳng sang {@code type} bằng JsonParser: không dựng ApiWrapperResponse/JsonNode trung gian,
+     * subtree không map được skip ngay khi parse. Mỗi caller decode bản riêng nên DTO trả về có thể sửa thoải mái.
+     */
+    @Override
+    public <T> CompletableFuture<T> sendGetDataAsync(String endpoint, Map<String, String> params, Class<T> type) {
+        String cacheKey = RapidApiResponseCache.keyOf(endpoint, params);
+        byte[] cached = responseCache.get(cacheKey);
+        CompletableFuture<byte[]> body = cached != null
+                ? CompletableFuture.completedFuture(cached)
+                : sendCoalesced(cacheKey, endpoint, params);
+
+        // Decode và mọi stage phía sau (HotelService/FlightService) chạy trên pool của upstream (hotel/flight/destination)
+        return body
+                .thenApplyAsync(bytes -> RapidApiResponseReader.readData(objectMapper, bytes, type),
+                        executors.forEndpoint(endpoint))
+                .exceptionally(ex -> {
+                    log.error("Error calling RapidAPI: {}", ex.getMessage(), ex);
+                    return null;
+                });
+    }
+
+    /**
+     * Các caller đồng thời cùng key dùng chung một lần gọi WebClient.
+     * Caller đầu tiên (leader) gọi qua proxy, lưu cache rồi mới gỡ khỏi inFlight
+     * để request đến sau luôn thấy hoặc cache hoặc future đang chạy.
+     */
+    private CompletableFuture<byte[]> sendCoalesced(String cacheKey, String endpoint, Map<String, String> params) {
+        CompletableFuture<byte[]> existing = inFlight.get(cacheKey);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return existing.copy();
+        }
+
+        CompletableFuture<byte[]> promise = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(cacheKey, promise);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return existing.copy();
+        }
+
         try {
-            return sendGetRequestWrapper(endpoint, params).get().getData();
-        } catch (Exception e) {
-            log.error("Error calling RapidAPI: {}", e.getMessage(), e);
-            return null;
+            self.sendGetRequestRaw(endpoint, params).whenComplete((response, ex) -> {
+                if (ex == null && RapidApiResponseReader.isSuccess(objectMapper, response)) {
+                    // Chỉ cache response thành công, không cache fallback
+                    responseCache.put(RapidApiEndPoint.fromPath(endpoint), cacheKey, response);
+                }
+                inFlight.remove(cacheKey, promise);
+                if (ex != null) {
+                    promise.completeExceptionally(ex);
+                } else {
+                    promise.complete(response);
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlight.remove(cacheKey, promise);
+            promise.completeExceptionally(ex);
         }
+
+        // Trả bản copy để caller cancel không ảnh hưởng các caller khác đang chờ cùng request
+        return promise.copy();
     }
 
     @Override
@@ -5,12 +5,13 @@ import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import exe.project.backend.cache.VerifiedTokenCache;
 import exe.project.backend.models.RefreshToken;
 import exe.project.backend.models.User;
 import exe.project.backend.repositories.IRefreshTokenRepository;
-import exe.project.backend.repositories.TokenBlacklistRepository;
 import exe.project.backend.services.IRefreshTokenService;
-import lombok.RequiredArgsConstructor;
+import exe.project.backend.services.ITokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -20,17 +21,37 @@ import java.util.Date;
 import java.util.UUID;
 
 @Service
-@RequiredArgsConstructor
 public class RefreshTokenService implements IRefreshTokenService {
 
     private final IRefreshTokenRepository refreshTokenRepository;
-    private final TokenBlacklistRepository tokenBlacklistRepository;
-
-    @Value("${jwt.refreshSignerKey}")
-    private String refreshSignerKey;
-
-    @Value("${jwt.refreshTime}")
-    private long refreshTime;
+    private final ITokenRevocationService tokenRevocationService;
+    private final long refreshTime;
+
+    // MACSigner/MACVerifier thread-safe, tạo một lần thay vì mỗi lần ký/verify
+    private final MACSigner signer;
+    private final MACVerifier verifier;
+    private final VerifiedTokenCache<JWTClaimsSet> claimsCache;
+
+    public RefreshTokenService(
+            IRefreshTokenRepository refreshTokenRepository,
+            ITokenRevocationService tokenRevocationService,
+            @Value("${jwt.refreshSignerKey}") String refreshSignerKey,
+            @Value("${jwt.refreshTime}") long refreshTime,
+            @Value("${jwt.claims-cache.max-entries:10000}") long claimsCacheMaxEntries,
+            MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTime = refreshTime;
+        try {
+            this.signer = new MACSigner(refreshSignerKey.getBytes());
+            this.verifier = new MACVerifier(refreshSignerKey.getBytes());
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Invalid jwt.refreshSignerKey", e);
+        }
+        this.claimsCache = new VerifiedTokenCache<>(
+                "refreshTokenClaims", claimsCacheMaxEntries, meterRegistry,
+                claims -> claims.getExpirationTime() != null ? claims.getExpirationTime().toInstant() : null);
+    }
 
     @Override
     public long getExpiresIn() {
@@ -64,7 +85,7 @@ public class RefreshTokenService implements IRefreshTokenService {
         );
 
         try {
-            jwsObject.sign(new MACSigner(refreshSignerKey.getBytes()));
+            jwsObject.sign(signer);
             return jwsObject.serialize();
         } catch (JOSEException e) {
             throw new RuntimeException("Cannot sign refresh token", e);
@@ -96,7 +117,7 @@ public class RefreshTokenService implements IRefreshTokenService {
     @Override
     public boolean isValidRefreshToken(String token) {
 
-        if (tokenBlacklistRepository.existsByToken(token)) {
+        if (tokenRevocationService.isRevoked(token)) {
             return false;
         }
 
@@ -124,11 +145,16 @@ public class RefreshTokenService implements IRefreshTokenService {
         return extractAllClaims(token).getJWTID();
     }
 
+    // Mỗi token chỉ parse + HMAC một lần cho tới khi hết hạn, các lần sau lấy từ cache
     private JWTClaimsSet extractAllClaims(String token) {
+        return claimsCache.get(token, this::verifyAndParse);
+    }
+
+    private JWTClaimsSet verifyAndParse(String token) {
         try {
             SignedJWT signedJWT = SignedJWT.parse(token);
 
-            if (!signedJWT.verify(new MACVerifier(refreshSignerKey.getBytes()))) {
+            if (!signedJWT.verify(verifier)) {
                 throw new RuntimeException("Refresh token signature verification failed");
             }
 
@@ -144,6 +170,7 @@ public class RefreshTokenService implements IRefreshTokenService {
     @Override
     public void deleteToken(String token) {
         refreshTokenRepository.deleteById(extractJwtId(token));
+        claimsCache.invalidate(token);
     }
 
     @Override
@@ -0,0 +1,116 @@
+package exe.project.backend.services.impl;
+
+import exe.project.backend.dtos.local.SubscriptionPackageInfo;
+import exe.project.backend.repositories.SubscriptionPackageRepository;
+import exe.project.backend.services.ISubscriptionPackageCatalogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bảng subscription_packages chỉ có vài dòng và hầu như không đổi, nên giữ nguyên bảng trong bộ nhớ.
+ * Catalog là một snapshot bất biến (map theo id và theo code) thay bằng một lần gán volatile,
+ * người đọc không bao giờ thấy trạng thái dở dang. Nạp khi khởi động, admin reload khi sửa gói,
+ * và refresh định kỳ để nhận thay đổi sửa thẳng trong DB hoặc từ node khác.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SubscriptionPackageCatalogService implements ISubscriptionPackageCatalogService {
+
+    private final SubscriptionPackageRepository packageRepository;
+
+    // ReentrantLock thay vì synchronized: reload query DB, synchronized sẽ pin carrier khi chạy virtual thread
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile Catalog catalog;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @Override
+    public Optional<SubscriptionPackageInfo> findActiveByCode(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current().activeByCode().get(code));
+    }
+
+    @Override
+    public Optional<SubscriptionPackageInfo> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current().byId().get(id));
+    }
+
+    @Override
+    public Collection<SubscriptionPackageInfo> getAll() {
+        return current().byId().values();
+    }
+
+    @Override
+    public Collection<SubscriptionPackageInfo> reload() {
+        reloadLock.lock();
+        try {
+            return doReload();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Collection<SubscriptionPackageInfo> doReload() {
+        List<SubscriptionPackageInfo> packages = packageRepository.findAll().stream()
+                .map(SubscriptionPackageInfo::from)
+                .toList();
+
+        Map<Long, SubscriptionPackageInfo> byId = new HashMap<>();
+        Map<String, SubscriptionPackageInfo> activeByCode = new HashMap<>();
+        for (SubscriptionPackageInfo pkg : packages) {
+            byId.put(pkg.getId(), pkg);
+            if (pkg.isActive()) {
+                activeByCode.put(pkg.getCode(), pkg);
+            }
+        }
+
+        catalog = new Catalog(Map.copyOf(byId), Map.copyOf(activeByCode));
+        log.info("Loaded {} subscription packages ({} active)", byId.size(), activeByCode.size());
+        return catalog.byId().values();
+    }
+
+    @Scheduled(fixedDelayString = "${package-catalog.refresh-interval-ms:600000}",
+            initialDelayString = "${package-catalog.refresh-interval-ms:600000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // Giữ catalog cũ nếu DB lỗi
+            log.warn("Cannot refresh subscription package catalog: {}", e.getMessage());
+        }
+    }
+
+    // Read-through: gọi trước khi ApplicationReadyEvent chạy xong thì tự nạp
+    private Catalog current() {
+        Catalog snapshot = catalog;
+        if (snapshot == null) {
+            reload();
+            snapshot = catalog;
+        }
+        return snapshot;
+    }
+
+    private record Catalog(Map<Long, SubscriptionPackageInfo> byId,
+                           Map<String, SubscriptionPackageInfo> activeByCode) {
+    }
+}
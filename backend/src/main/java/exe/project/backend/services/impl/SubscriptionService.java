@@ -1,5 +1,6 @@
 package exe.project.backend.services.impl;
 
+import exe.project.backend.cache.SubscriptionStatusCache;
 import exe.project.backend.dtos.responses.SubscriptionStatusResponse;
 import exe.project.backend.models.UserSubscription;
 import exe.project.backend.repositories.UserSubscriptionRepository;
@@ -21,17 +22,20 @@ import java.time.temporal.ChronoUnit;
 public class SubscriptionService implements ISubscriptionService {
 
     private final UserSubscriptionRepository subscriptionRepository;
+    private final SubscriptionStatusCache statusCache;
 
     @Override
     public SubscriptionStatusResponse getStatus(Long userId) {
         log.info("Getting subscription status for userId: {}", userId);
 
-        UserSubscription subscription = subscriptionRepository.findByUserId(userId)
-                .orElse(null);
+        // Chỉ expiredAt nằm trong cache, isActive/remainingDays tính theo thời điểm hiện tại
+        LocalDateTime expiredAt = statusCache.getExpiredAt(userId, id -> subscriptionRepository.findByUserId(id)
+                .map(UserSubscription::getExpiredAt)
+                .orElse(null));
 
         LocalDateTime now = LocalDateTime.now();
 
-        if (subscription == null || subscription.getExpiredAt() == null) {
+        if (expiredAt == null) {
             // Chưa có subscription
             return SubscriptionStatusResponse.builder()
                     .isActive(false)
@@ -41,18 +45,16 @@ public class SubscriptionService implements ISubscriptionService {
                     .build();
         }
 
-        boolean isActive = subscription.getExpiredAt().isAfter(now);
-        long seconds = ChronoUnit.SECONDS.between(now, subscription.getExpiredAt());
+        boolean isActive = expiredAt.isAfter(now);
+        long seconds = ChronoUnit.SECONDS.between(now, expiredAt);
 
         long remainingDays = seconds > 0
                 ? (long) Math.ceil(seconds / 86400.0)
                 : 0;
 
-        System.out.println(isActive);
-
         return SubscriptionStatusResponse.builder()
                 .isActive(isActive)
-                .expiredAt(subscription.getExpiredAt())
+                .expiredAt(expiredAt)
                 .now(now)
                 .remainingDays(remainingDays)
                 .build();
@@ -84,6 +86,7 @@ public class SubscriptionService implements ISubscriptionService {
         }
 
         subscriptionRepository.save(subscription);
+        statusCache.invalidate(userId);
         log.info("Subscription extended successfully for userId: {}", userId);
     }
 }
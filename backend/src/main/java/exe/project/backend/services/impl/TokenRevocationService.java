@@ -0,0 +1,157 @@
+package exe.project.backend.services.impl;
+
+import exe.project.backend.dtos.local.RevokedTokenHash;
+import exe.project.backend.models.TokenBlacklist;
+import exe.project.backend.repositories.TokenBlacklistRepository;
+import exe.project.backend.services.ITokenRevocationService;
+import exe.project.backend.utils.BloomFilter;
+import exe.project.backend.utils.TokenHashUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Danh sách token đã thu hồi (logout), key = SHA-256 của token.
+ * Bloom filter đứng trước tập chính xác: token chưa từng bị thu hồi (gần như mọi request) trả false ngay,
+ * không đụng tới map lẫn DB. Bảng TokenBlacklist vẫn là nguồn gốc: nạp khi khởi động,
+ * đồng bộ bản ghi mới của node khác theo cửa sổ createdAt, và dọn bản ghi hết hạn định kỳ.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService implements ITokenRevocationService {
+
+    private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final Duration syncOverlap;
+
+    // token hash -> thời điểm token hết hạn
+    private final ConcurrentHashMap<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    // Thời điểm bắt đầu lần đồng bộ gần nhất (giờ JVM), null khi chưa nạp
+    private volatile LocalDateTime lastSyncedAt;
+
+    public TokenRevocationService(
+            TokenBlacklistRepository tokenBlacklistRepository,
+            @Value("${token-revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${token-revocation.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${token-revocation.sync-overlap-ms:60000}") long syncOverlapMs) {
+        this.tokenBlacklistRepository = tokenBlacklistRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncOverlap = Duration.ofMillis(syncOverlapMs);
+        this.bloomFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        backfillTokenHashes(now);
+        addAll(tokenBlacklistRepository.findActiveHashes(now));
+        lastSyncedAt = now;
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    @Override
+    public boolean isRevoked(String token) {
+        String hash = TokenHashUtil.sha256Hex(token);
+        if (!bloomFilter.mightContain(hash)) {
+            return false;
+        }
+        LocalDateTime expiresAt = revoked.get(hash);
+        return expiresAt != null && expiresAt.isAfter(LocalDateTime.now());
+    }
+
+    @Override
+    public void revoke(String token, String tokenType, LocalDateTime expiresAt) {
+        String hash = TokenHashUtil.sha256Hex(token);
+
+        TokenBlacklist blacklist = TokenBlacklist.builder()
+                .token(token)
+                .tokenHash(hash)
+                .tokenType(tokenType)
+                .expiresAt(expiresAt)
+                .build();
+
+        tokenBlacklistRepository.save(blacklist);
+        add(hash, expiresAt);
+    }
+
+    /**
+     * Lấy bản ghi node khác vừa thêm, để logout ở node nào cũng có hiệu lực toàn cụm.
+     * Không theo id: id IDENTITY có thể commit không theo thứ tự, bản ghi id nhỏ commit muộn sẽ bị bỏ sót.
+     * Lấy theo createdAt từ lần trước lùi thêm sync-overlap (commit muộn, lệch giờ giữa các node), trùng thì bỏ qua theo hash.
+     */
+    @Scheduled(fixedDelayString = "${token-revocation.sync-interval-ms:15000}")
+    public void syncNewEntries() {
+        LocalDateTime since = lastSyncedAt;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            addAll(tokenBlacklistRepository.findActiveHashesCreatedAfter(since.minus(syncOverlap), now));
+            lastSyncedAt = now;
+        } catch (Exception e) {
+            log.warn("Cannot sync token blacklist: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Xoá token đã hết hạn khỏi DB và bộ nhớ, dựng lại Bloom filter vì filter không xoá được phần tử.
+     */
+    @Scheduled(fixedDelayString = "${token-revocation.sweep-interval-ms:3600000}")
+    public void sweepExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            tokenBlacklistRepository.deleteByExpiresAtBefore(now);
+        } catch (Exception e) {
+            log.warn("Cannot delete expired token blacklist rows: {}", e.getMessage());
+        }
+
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        rebuildBloomFilter();
+    }
+
+    /**
+     * Bản ghi cũ (trước khi có cột token_hash) được hash một lần và lưu lại,
+     * sau đó mọi lần nạp/đồng bộ chỉ đọc hash, không đọc cột @Lob token
+     */
+    private void backfillTokenHashes(LocalDateTime now) {
+        List<TokenBlacklist> legacy = tokenBlacklistRepository.findByTokenHashIsNullAndExpiresAtAfter(now);
+        if (legacy.isEmpty()) {
+            return;
+        }
+        legacy.forEach(blacklist -> blacklist.setTokenHash(TokenHashUtil.sha256Hex(blacklist.getToken())));
+        tokenBlacklistRepository.saveAll(legacy);
+        log.info("Backfilled token_hash for {} revoked tokens", legacy.size());
+    }
+
+    private void addAll(List<RevokedTokenHash> entries) {
+        for (RevokedTokenHash entry : entries) {
+            if (!entry.getExpiresAt().equals(revoked.get(entry.getTokenHash()))) {
+                add(entry.getTokenHash(), entry.getExpiresAt());
+            }
+        }
+    }
+
+    // Đồng bộ với rebuildBloomFilter để không mất phần tử thêm vào giữa lúc dựng filter mới
+    private synchronized void add(String hash, LocalDateTime expiresAt) {
+        revoked.put(hash, expiresAt);
+        bloomFilter.put(hash);
+    }
+
+    private synchronized void rebuildBloomFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size()), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+    }
+}
@@ -0,0 +1,17 @@
+package exe.project.backend.services.outbox;
+
+import exe.project.backend.enums.OutboxEventType;
+
+/**
+ * Xử lý một loại outbox event. Có thể bị gọi lại nhiều lần cho cùng event (retry, crash giữa chừng)
+ * nên handler phải chịu được chạy lặp.
+ */
+public interface OutboxEventHandler {
+
+    OutboxEventType getType();
+
+    /**
+     * Ném exception để worker retry theo backoff
+     */
+    void handle(String payload) throws Exception;
+}
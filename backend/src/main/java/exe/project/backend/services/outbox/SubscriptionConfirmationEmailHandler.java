@@ -0,0 +1,56 @@
+package exe.project.backend.services.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exe.project.backend.dtos.local.SubscriptionPurchasedPayload;
+import exe.project.backend.dtos.responses.SubscriptionStatusResponse;
+import exe.project.backend.enums.OutboxEventType;
+import exe.project.backend.models.User;
+import exe.project.backend.repositories.IUserRepository;
+import exe.project.backend.services.IEmailService;
+import exe.project.backend.services.ISubscriptionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gửi email xác nhận mua gói. Đọc user và expiredAt ở đây (ngoài transaction webhook)
+ * thay vì trong lúc còn giữ lock payment. Chờ SMTP nhận email xong mới trả về,
+ * nên event chỉ DONE khi đã gửi thật; lỗi SMTP / restart giữa chừng thì outbox retry.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SubscriptionConfirmationEmailHandler implements OutboxEventHandler {
+
+    private final ObjectMapper objectMapper;
+    private final IUserRepository userRepository;
+    private final ISubscriptionService subscriptionService;
+    private final IEmailService emailService;
+
+    @Override
+    public OutboxEventType getType() {
+        return OutboxEventType.SUBSCRIPTION_CONFIRMATION_EMAIL;
+    }
+
+    @Override
+    public void handle(String payload) throws Exception {
+        SubscriptionPurchasedPayload event = objectMapper.readValue(payload, SubscriptionPurchasedPayload.class);
+
+        User user = userRepository.findById(event.getUserId()).orElse(null);
+        if (user == null || user.getEmail() == null) {
+            log.warn("Cannot send email: User not found or email is null for userId: {}", event.getUserId());
+            return;
+        }
+
+        SubscriptionStatusResponse subscription = subscriptionService.getStatus(event.getUserId());
+
+        emailService.sendSubscriptionConfirmationEmail(
+                user.getEmail(),
+                user.getEmail(), // userName = email vì User model không có name field
+                event.getPackageName(),
+                event.getAmount(),
+                subscription.getExpiredAt());
+
+        log.info("Confirmation email sent to userId: {}, paymentId: {}", event.getUserId(), event.getPaymentId());
+    }
+}
@@ -0,0 +1,87 @@
+package exe.project.backend.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Giới hạn số request đang bay theo kiểu AIMD (như TCP congestion control):
+ * request xong nhanh hơn ngưỡng latency khi đang dùng quá nửa limit thì limit + 1,
+ * request chậm hơn ngưỡng hoặc upstream quá tải (timeout, 429, 5xx) thì limit x backoffRatio.
+ * Hết chỗ thì {@link #tryAcquire()} trả false ngay, không xếp hàng. Lock-free, thread-safe.
+ */
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("AIMD limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("AIMD backoff ratio must be in (0, 1): " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Request có response (kể cả 4xx do phía mình): dùng latency để tăng/giảm limit
+     */
+    public void onSuccess(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        if (latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (current * 2 >= limit.get()) {
+            // Chỉ tăng khi limit đang thực sự được dùng, tránh limit phình vô nghĩa lúc ít tải
+            limit.updateAndGet(value -> Math.min(maxLimit, value + 1));
+        }
+    }
+
+    /**
+     * Upstream quá tải hoặc timeout
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        decrease();
+    }
+
+    /**
+     * Request bị huỷ / lỗi không nói gì về tải của upstream: chỉ trả chỗ
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void decrease() {
+        limit.updateAndGet(value -> Math.max(minLimit, (int) (value * backoffRatio)));
+    }
+}
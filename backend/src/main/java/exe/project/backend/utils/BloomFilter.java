@@ -0,0 +1,52 @@
+package exe.project.backend.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter cho chuỗi SHA-256 hex (xem {@link TokenHashUtil}): input đã là hash đều nên
+ * lấy thẳng 2 x 64 bit đầu làm h1, h2 và dùng double hashing (h1 + i*h2) cho k vị trí.
+ * mightContain = false nghĩa là chắc chắn không có; thread-safe, không hỗ trợ xoá (rebuild thay vì xoá).
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (bitCount / 64));
+    }
+
+    public void put(String sha256Hex) {
+        long h1 = Long.parseUnsignedLong(sha256Hex, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(sha256Hex, 16, 32, 16);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << (index & 63);
+            int word = (int) (index >>> 6);
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String sha256Hex) {
+        long h1 = Long.parseUnsignedLong(sha256Hex, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(sha256Hex, 16, 32, 16);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
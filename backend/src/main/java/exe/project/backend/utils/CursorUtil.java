@@ -0,0 +1,61 @@
+package exe.project.backend.utils;
+
+import exe.project.backend.dtos.responses.CursorPage;
+import exe.project.backend.enums.ErrorCode;
+import exe.project.backend.exceptions.ServiceException;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursor cho keyset pagination theo (createAt, id) DESC: base64url của "createAt|id",
+ * client chỉ cần gửi lại nguyên chuỗi nextCursor của trang trước.
+ */
+@NoArgsConstructor
+public class CursorUtil {
+
+    public static String encode(LocalDateTime createAt, Long id) {
+        String raw = createAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Position decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Position(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ServiceException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Cắt {@code rows} (đã query dư 1 dòng, limit = size + 1) thành một trang, cursor lấy từ dòng cuối
+     */
+    public static <T> CursorPage<T> toPage(List<T> rows, int size,
+                                           Function<T, LocalDateTime> createAt, Function<T, Long> id) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            T last = content.get(content.size() - 1);
+            nextCursor = encode(createAt.apply(last), id.apply(last));
+        }
+
+        return CursorPage.<T>builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(content.size())
+                .build();
+    }
+
+    public record Position(LocalDateTime createAt, Long id) {
+    }
+}
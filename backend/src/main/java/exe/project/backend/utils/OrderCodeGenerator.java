@@ -0,0 +1,55 @@
+package exe.project.backend.utils;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sinh orderCode kiểu Snowflake, vừa giới hạn số nguyên của PayOS (≤ 2^53 - 1):
+ * 41 bit mili giây từ EPOCH | 4 bit node | 8 bit sequence (256 mã/ms mỗi node).
+ * Lock-free: trạng thái (timestamp, sequence) nằm trong một AtomicLong cập nhật bằng CAS.
+ * Hết sequence trong một ms hoặc đồng hồ lùi thì mượn ms kế tiếp thay vì chờ,
+ * nên mã luôn tăng dần trên từng node và không bao giờ trùng giữa các node.
+ */
+public class OrderCodeGenerator {
+
+    public static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 4;
+    static final int SEQUENCE_BITS = 8;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    public static final long MAX_ORDER_CODE = (1L << 53) - 1;
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    // (mili giây từ EPOCH << SEQUENCE_BITS) | sequence của mã phát ra gần nhất
+    private final AtomicLong state = new AtomicLong();
+
+    public OrderCodeGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    OrderCodeGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Order code node id must be in [0, " + MAX_NODE_ID + "]: " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    public long next() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long current;
+        do {
+            previous = state.get();
+            // Sang ms mới thì sequence về 0, còn lại +1 (tràn sequence tự cộng sang ms kế tiếp)
+            current = Math.max(now, previous + 1);
+        } while (!state.compareAndSet(previous, current));
+
+        long millis = current >>> SEQUENCE_BITS;
+        long sequence = current & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+}
@@ -0,0 +1,64 @@
+package exe.project.backend.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Đọc body RapidAPI ({"status", "message", "timestamp", "data"}) bằng JsonParser, không dựng JsonNode trung gian.
+ * Field khác "data" bị skipChildren() ngay ở mức token; field không map trong DTO cũng được Jackson skip như vậy.
+ */
+@NoArgsConstructor
+public class RapidApiResponseReader {
+
+    /**
+     * Decode thẳng field "data" sang {@code type}. Trả về null nếu body rỗng, không có "data" hoặc "data" = null.
+     */
+    public static <T> T readData(ObjectMapper objectMapper, byte[] body, Class<T> type) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (!seekTopLevelField(parser, "data") || parser.currentToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            return objectMapper.readValue(parser, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Chỉ đọc tới field "status" (thường nằm đầu body) để quyết định có cache response hay không.
+     */
+    public static boolean isSuccess(ObjectMapper objectMapper, byte[] body) {
+        if (body == null || body.length == 0) {
+            return false;
+        }
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            return seekTopLevelField(parser, "status") && parser.currentToken() == JsonToken.VALUE_TRUE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Dừng ở token value của field cần tìm, các field khác skip nguyên subtree
+    private static boolean seekTopLevelField(JsonParser parser, String name) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (name.equals(field)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
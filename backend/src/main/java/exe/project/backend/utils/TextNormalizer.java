@@ -0,0 +1,27 @@
+package exe.project.backend.utils;
+
+import lombok.NoArgsConstructor;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+@NoArgsConstructor
+public class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    /**
+     * "Hà Nội", "ha noi", " HA-NOI " đều thành "ha noi": lowercase, bỏ dấu (kể cả đ/Đ),
+     * ký tự không phải chữ/số thành 1 khoảng trắng.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD)
+                .replace('đ', 'd');
+        String withoutMarks = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(withoutMarks).replaceAll(" ").trim();
+    }
+}
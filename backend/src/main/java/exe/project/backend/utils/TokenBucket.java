@@ -0,0 +1,32 @@
+package exe.project.backend.utils;
+
+/**
+ * Token bucket: tối đa {@code capacity} token, hồi 1 token mỗi {@code refillIntervalNanos}.
+ * Cho phép burst tới capacity rồi giới hạn theo tốc độ hồi. Thread-safe.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final long refillIntervalNanos;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long capacity, long refillIntervalNanos) {
+        this.capacity = capacity;
+        this.refillIntervalNanos = refillIntervalNanos;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public synchronized boolean tryConsume() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (double) (now - lastRefillNanos) / refillIntervalNanos);
+        lastRefillNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package exe.project.backend.utils;
+
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@NoArgsConstructor
+public class TokenHashUtil {
+
+    /**
+     * SHA-256 (hex, 64 ký tự) của token: dùng làm key cache/lookup thay cho chuỗi JWT gốc.
+     */
+    public static String sha256Hex(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
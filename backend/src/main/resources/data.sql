@@ -4,3 +4,9 @@ VALUES
   ('day', 1, 10000, true, 'Gói 1 ngày', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, false),
   ('month', 30, 49000, true, 'Gói 30 ngày', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, false)
 ON CONFLICT (code) DO NOTHING;
+
+-- Tìm email theo tiền tố (lower(email) LIKE 'x%') ở admin listing; JPA @Index không khai báo được index biểu thức
+CREATE INDEX IF NOT EXISTS idx_users_email_lower_pattern ON users (lower(email) text_pattern_ops);
+
+-- Tra token thu hồi đi qua bộ nhớ (Bloom filter + map), index theo hash chỉ làm chậm mỗi lần logout
+DROP INDEX IF EXISTS idx_token_blacklist_token_hash;
@@ -0,0 +1,82 @@
+package exe.project.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AimdLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(100).toNanos();
+    private static final long SLOW = Duration.ofSeconds(5).toNanos();
+
+    private AimdLimiter limiter(int initialLimit) {
+        return new AimdLimiter(initialLimit, 2, 50, 0.5, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void rejectsImmediatelyWhenLimitReached() {
+        AimdLimiter limiter = limiter(3);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.onIgnored();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void fastResponsesUnderLoadIncreaseLimit() {
+        AimdLimiter limiter = limiter(4);
+
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+        limiter.onSuccess(FAST);
+
+        assertEquals(5, limiter.getLimit());
+        assertEquals(3, limiter.getInFlight());
+    }
+
+    @Test
+    void fastResponsesWhileIdleKeepLimit() {
+        AimdLimiter limiter = limiter(10);
+
+        limiter.tryAcquire();
+        limiter.onSuccess(FAST);
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void slowResponsesAndDropsBackOffDownToMinimum() {
+        AimdLimiter limiter = limiter(20);
+
+        limiter.tryAcquire();
+        limiter.onSuccess(SLOW);
+        assertEquals(10, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.onDropped();
+        assertEquals(5, limiter.getLimit());
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.onDropped();
+        }
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimiter(1, 2, 50, 0.5, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimiter(10, 2, 50, 1.0, Duration.ofSeconds(1)));
+    }
+}
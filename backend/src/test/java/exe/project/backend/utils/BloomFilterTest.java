@@ -0,0 +1,51 @@
+package exe.project.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    void neverMissesInsertedHashes() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put(TokenHashUtil.sha256Hex("revoked-" + i));
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(filter.mightContain(TokenHashUtil.sha256Hex("revoked-" + i)), "false negative at " + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfiguredRate() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put(TokenHashUtil.sha256Hex("revoked-" + i));
+        }
+
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(TokenHashUtil.sha256Hex("active-" + i))) {
+                falsePositives++;
+            }
+        }
+
+        // Đầy đúng expectedInsertions thì tỉ lệ ~1%, cho biên 1.5x để test không chập chờn
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < FALSE_POSITIVE_RATE * 1.5, "false positive rate too high: " + rate);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+
+        assertFalse(filter.mightContain(TokenHashUtil.sha256Hex("anything")));
+    }
+}
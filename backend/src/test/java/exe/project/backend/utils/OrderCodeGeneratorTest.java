@@ -0,0 +1,94 @@
+package exe.project.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderCodeGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int CODES_PER_THREAD = 500_000;
+
+    @Test
+    void concurrentCodesAreUniqueMonotonicAndWithinPayOSLimit() throws Exception {
+        OrderCodeGenerator generator = new OrderCodeGenerator(OrderCodeGenerator.MAX_NODE_ID);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            long[][] codes = new long[THREADS][CODES_PER_THREAD];
+            for (int t = 0; t < THREADS; t++) {
+                long[] own = codes[t];
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < own.length; i++) {
+                        own[i] = generator.next();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+
+            long[] all = new long[THREADS * CODES_PER_THREAD];
+            for (int t = 0; t < THREADS; t++) {
+                // Trên cùng một thread mã phải tăng dần
+                for (int i = 1; i < CODES_PER_THREAD; i++) {
+                    assertTrue(codes[t][i] > codes[t][i - 1], "codes must increase per thread");
+                }
+                System.arraycopy(codes[t], 0, all, t * CODES_PER_THREAD, CODES_PER_THREAD);
+            }
+
+            Arrays.sort(all);
+            assertTrue(all[0] > 0);
+            assertTrue(all[all.length - 1] <= OrderCodeGenerator.MAX_ORDER_CODE);
+            for (int i = 1; i < all.length; i++) {
+                assertNotEquals(all[i - 1], all[i], "duplicate order code");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sameMillisecondOnTwoNodesDoesNotCollide() {
+        long fixed = OrderCodeGenerator.EPOCH_MILLIS + 1_000;
+        OrderCodeGenerator node0 = new OrderCodeGenerator(0, () -> fixed);
+        OrderCodeGenerator node1 = new OrderCodeGenerator(1, () -> fixed);
+
+        assertNotEquals(node0.next(), node1.next());
+    }
+
+    @Test
+    void clockGoingBackwardsStillIncreases() {
+        AtomicLong clock = new AtomicLong(OrderCodeGenerator.EPOCH_MILLIS + 10_000);
+        OrderCodeGenerator generator = new OrderCodeGenerator(3, clock::get);
+
+        long before = generator.next();
+        clock.addAndGet(-5_000);
+        long after = generator.next();
+
+        assertTrue(after > before);
+        assertEquals(3, (after >>> 8) & 0xF);
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderCodeGenerator(16));
+        assertThrows(IllegalArgumentException.class, () -> new OrderCodeGenerator(-1));
+    }
+}